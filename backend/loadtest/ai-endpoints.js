@@ -0,0 +1,81 @@
+// k6 load test for the AI endpoints, run against the backend started with the loadtest profile.
+//
+//   k6 run backend/loadtest/ai-endpoints.js
+//   k6 run -e BASE_URL=http://localhost:8080 -e USERS=100 -e RATE=20 -e DURATION=5m backend/loadtest/ai-endpoints.js
+//
+// Each iteration signs in as one of the seeded loadtest-N users and calls one AI endpoint, in a
+// fixed mix. Responses that are served but came from a fallback (rule-based tips, cached tips or
+// the chatbot's canned apology) still count as successes here; compare ai.mock.requests with
+// ai.agent.*, ai.dispatch.* and ai.rate_limit.* on /actuator/metrics to see how many did.
+
+import http from 'k6/http';
+import { check } from 'k6';
+import { Trend } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const USERS = parseInt(__ENV.USERS || '100', 10);
+
+const chatFirstByte = new Trend('chat_stream_first_byte', true);
+
+export const options = {
+  scenarios: {
+    ai: {
+      executor: 'constant-arrival-rate',
+      rate: parseInt(__ENV.RATE || '20', 10),
+      timeUnit: '1s',
+      duration: __ENV.DURATION || '3m',
+      preAllocatedVUs: 50,
+      maxVUs: 500,
+    },
+  },
+  thresholds: {
+    http_req_failed: ['rate<0.01'],
+    'http_req_duration{endpoint:personalized}': ['p(95)<5000'],
+    'http_req_duration{endpoint:chatbot}': ['p(95)<8000'],
+  },
+};
+
+const QUESTIONS = [
+  'How much did I spend on groceries this month?',
+  'Am I over budget anywhere?',
+  'What was my biggest expense recently?',
+  'How can I cut down on dining out?',
+  'Should I buy a new phone this month?',
+];
+
+function headers(user) {
+  return {
+    Authorization: `Bearer loadtest-${user}`,
+    'Content-Type': 'application/json',
+  };
+}
+
+export default function () {
+  const user = 1 + Math.floor(Math.random() * USERS);
+  const question = QUESTIONS[Math.floor(Math.random() * QUESTIONS.length)];
+  const roll = Math.random();
+
+  if (roll < 0.3) {
+    const res = http.get(`${BASE_URL}/ai-tips/personalized`, { headers: headers(user), tags: { endpoint: 'personalized' } });
+    check(res, { 'personalized 200': (r) => r.status === 200 });
+  } else if (roll < 0.45) {
+    const res = http.get(`${BASE_URL}/ai-tips/multiple`, { headers: headers(user), tags: { endpoint: 'multiple' } });
+    check(res, { 'multiple 200': (r) => r.status === 200 });
+  } else if (roll < 0.55) {
+    const res = http.get(`${BASE_URL}/ai-tips/daily?currency=INR`, { headers: headers(user), tags: { endpoint: 'daily' } });
+    check(res, { 'daily 200': (r) => r.status === 200 });
+  } else if (roll < 0.8) {
+    const res = http.post(`${BASE_URL}/ai-chatbot`, JSON.stringify({ message: question, currency: 'INR' }),
+      { headers: headers(user), tags: { endpoint: 'chatbot' } });
+    check(res, { 'chatbot 200': (r) => r.status === 200 });
+  } else {
+    // k6 reads the whole event stream; time to first byte approximates time to first token
+    const res = http.post(`${BASE_URL}/ai-chatbot/stream`, JSON.stringify({ message: question, currency: 'INR' }),
+      { headers: headers(user), tags: { endpoint: 'chatbot_stream' } });
+    chatFirstByte.add(res.timings.waiting);
+    check(res, {
+      'stream 200': (r) => r.status === 200,
+      'stream completed': (r) => r.body.includes('event:done'),
+    });
+  }
+}
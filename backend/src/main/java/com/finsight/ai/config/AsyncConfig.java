@@ -0,0 +1,71 @@
+package com.finsight.ai.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Executor for AI endpoints. Calls to the AI agent block for seconds, so they run on virtual
+ * threads and the controllers return futures; Tomcat worker threads stay free for CRUD traffic.
+ *
+ * Virtual threads are unbounded, but the database work they do is not, so at most
+ * {@code app.ai.executor.max-concurrent} top-level tasks run at once; the rest park on a fair
+ * semaphore instead of piling up on the Hikari pool. Tasks submitted from a running AI task (the
+ * context prefetch) ride on their parent's permit, so fan-out can never deadlock on it.
+ */
+@Configuration
+public class AsyncConfig implements WebMvcConfigurer {
+
+    public static final String AI_EXECUTOR = "aiExecutor";
+
+    // Set on AI threads running under a permit
+    private static final ThreadLocal<Boolean> HOLDS_PERMIT = new ThreadLocal<>();
+
+    @Value("${app.ai.async-timeout-ms:60000}")
+    private long asyncTimeoutMs;
+
+    @Value("${app.ai.executor.max-concurrent:64}")
+    private int maxConcurrent;
+
+    @Bean(name = AI_EXECUTOR)
+    public AsyncTaskExecutor aiExecutor(MeterRegistry meterRegistry) {
+        int limit = Math.max(1, maxConcurrent);
+        Semaphore permits = new Semaphore(limit, true);
+        meterRegistry.gauge("ai.executor.active", permits, p -> limit - p.availablePermits());
+        meterRegistry.gauge("ai.executor.waiting", permits, Semaphore::getQueueLength);
+
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("ai-");
+        executor.setVirtualThreads(true);
+        // Decorated on the submitting thread, so a nested submission is recognised there
+        executor.setTaskDecorator(task -> {
+            boolean nested = Boolean.TRUE.equals(HOLDS_PERMIT.get());
+            return () -> {
+                if (!nested) {
+                    permits.acquireUninterruptibly();
+                }
+                HOLDS_PERMIT.set(true);
+                try {
+                    task.run();
+                } finally {
+                    HOLDS_PERMIT.remove();
+                    if (!nested) {
+                        permits.release();
+                    }
+                }
+            };
+        });
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(asyncTimeoutMs);
+    }
+}
@@ -0,0 +1,89 @@
+package com.finsight.ai.config;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.finsight.ai.entity.Budget;
+import com.finsight.ai.entity.Expense;
+import com.finsight.ai.entity.ExpenseCategory;
+import com.finsight.ai.entity.User;
+import com.finsight.ai.repository.BudgetRepository;
+import com.finsight.ai.repository.ExpenseRepository;
+import com.finsight.ai.repository.UserRepository;
+import com.finsight.ai.service.FirebaseAuthService;
+
+/**
+ * Seeds the users the load test signs in as: loadtest-1 to loadtest-N, each with a month of
+ * expenses and budgets so prompts carry realistic context. Existing users are left as they are,
+ * and the data is derived from the user number, so every run sees the same data.
+ */
+@Component
+@Profile("loadtest")
+public class LoadTestSeeder implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestSeeder.class);
+
+    private static final ExpenseCategory[] CATEGORIES = {
+        ExpenseCategory.GROCERIES, ExpenseCategory.FOOD_DINING, ExpenseCategory.TRANSPORTATION,
+        ExpenseCategory.ENTERTAINMENT, ExpenseCategory.BILLS_UTILITIES, ExpenseCategory.SHOPPING
+    };
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private BudgetRepository budgetRepository;
+
+    @Value("${app.loadtest.users:100}")
+    private int users;
+
+    @Value("${app.loadtest.expenses-per-user:20}")
+    private int expensesPerUser;
+
+    @Override
+    public void run(String... args) {
+        LocalDate today = LocalDate.now();
+        int created = 0;
+        for (int n = 1; n <= users; n++) {
+            String uid = FirebaseAuthService.LOAD_TEST_TOKEN_PREFIX + n;
+            if (userRepository.existsByFirebaseUid(uid)) {
+                continue;
+            }
+            User user = new User(uid, uid + "@loadtest.local", "Load", "Tester " + n);
+            user.setCurrency("INR");
+            user = userRepository.save(user);
+
+            List<Expense> expenses = new ArrayList<>();
+            for (int i = 0; i < expensesPerUser; i++) {
+                ExpenseCategory category = CATEGORIES[(n + i) % CATEGORIES.length];
+                BigDecimal amount = BigDecimal.valueOf(100 + (n * 37L + i * 53L) % 1900);
+                expenses.add(new Expense(category.getDisplayName() + " " + (i + 1), amount, category,
+                        today.minusDays(i % 28), user));
+            }
+            expenseRepository.saveAll(expenses);
+
+            List<Budget> budgets = new ArrayList<>();
+            for (int i = 0; i < CATEGORIES.length; i++) {
+                // Every third category runs over budget, so over-budget prompts get exercised too
+                BigDecimal limit = BigDecimal.valueOf((n + i) % 3 == 0 ? 1000 : 6000);
+                budgets.add(new Budget(CATEGORIES[i], limit, today.getMonthValue(), today.getYear(), user));
+            }
+            budgetRepository.saveAll(budgets);
+            created++;
+        }
+        logger.info("Load test users ready: {} seeded, {} total", created, users);
+    }
+}
@@ -0,0 +1,277 @@
+package com.finsight.ai.config;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finsight.ai.service.AiAgentClient.ChatCompletionChunk;
+import com.finsight.ai.service.AiAgentClient.ChatCompletionRequest;
+import com.finsight.ai.service.AiAgentClient.ChatCompletionResponse;
+import com.finsight.ai.service.AiAgentClient.ChatMessage;
+import com.finsight.ai.service.AiAgentClient.Choice;
+import com.finsight.ai.service.AiAgentClient.ChunkChoice;
+import com.finsight.ai.service.AiAgentClient.Usage;
+import com.finsight.ai.service.PromptBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Stand-in for the AI agent's chat completions API, for load testing without the paid service.
+ *
+ * Runs its own Reactor Netty server on {@code app.mock-ai.port}, so mock traffic never takes
+ * Tomcat threads from the endpoints under test. Each request draws a latency from the configured
+ * distribution (fixed, uniform, or log-normal from a median and p99) and an outcome: a canned
+ * answer, a 500, a 429, a hang past the client timeout, or, when streamed, a connection dropped
+ * mid-answer. Answers come from {@code mock-ai/responses.json}, picked by the first rule whose
+ * text occurs in the prompt. The random source is seeded, so a run's mix is reproducible.
+ */
+@Component
+@Profile("loadtest")
+public class MockAiAgentServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(MockAiAgentServer.class);
+
+    private static final String COMPLETIONS_PATH = "/api/v1/chat/completions";
+    private static final double Z_99 = 2.326;
+
+    private enum Outcome { OK, ERROR, THROTTLED, HANG, ABORT }
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final List<ResponseRule> rules;
+    private final Random random;
+    private final String distribution;
+    private final long medianMs;
+    private final double sigma;
+    private final long minMs;
+    private final long maxMs;
+    private final long tokenDelayMs;
+    private final double errorRate;
+    private final double throttleRate;
+    private final double hangRate;
+    private final double abortRate;
+    private final long hangMs;
+    private final DisposableServer server;
+
+    public MockAiAgentServer(ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.mock-ai.port:8089}") int port,
+                             @Value("${app.mock-ai.responses:mock-ai/responses.json}") String responsesLocation,
+                             @Value("${app.mock-ai.seed:42}") long seed,
+                             @Value("${app.mock-ai.latency.distribution:lognormal}") String distribution,
+                             @Value("${app.mock-ai.latency.median-ms:800}") long medianMs,
+                             @Value("${app.mock-ai.latency.p99-ms:4000}") long p99Ms,
+                             @Value("${app.mock-ai.latency.min-ms:200}") long minMs,
+                             @Value("${app.mock-ai.latency.max-ms:30000}") long maxMs,
+                             @Value("${app.mock-ai.stream.token-delay-ms:30}") long tokenDelayMs,
+                             @Value("${app.mock-ai.error-rate:0.02}") double errorRate,
+                             @Value("${app.mock-ai.throttle-rate:0.01}") double throttleRate,
+                             @Value("${app.mock-ai.hang-rate:0.0}") double hangRate,
+                             @Value("${app.mock-ai.abort-rate:0.0}") double abortRate,
+                             @Value("${app.mock-ai.hang-ms:60000}") long hangMs) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.rules = load(objectMapper, responsesLocation).rules();
+        this.random = new Random(seed);
+        this.distribution = distribution.toLowerCase(Locale.ROOT);
+        this.medianMs = medianMs;
+        // Log-normal whose 99th percentile lands on p99Ms
+        this.sigma = Math.log(Math.max(p99Ms, medianMs + 1) / (double) Math.max(medianMs, 1)) / Z_99;
+        this.minMs = minMs;
+        this.maxMs = Math.max(maxMs, minMs);
+        this.tokenDelayMs = tokenDelayMs;
+        this.errorRate = errorRate;
+        this.throttleRate = throttleRate;
+        this.hangRate = hangRate;
+        this.abortRate = abortRate;
+        this.hangMs = hangMs;
+        if (!List.of("fixed", "uniform", "lognormal").contains(this.distribution)) {
+            throw new IllegalArgumentException("Unknown mock AI latency distribution: " + distribution);
+        }
+        if (rules.isEmpty()) {
+            throw new IllegalStateException("No mock AI responses in " + responsesLocation);
+        }
+
+        this.server = HttpServer.create()
+            .host("localhost")
+            .port(port)
+            .route(routes -> routes
+                .post(COMPLETIONS_PATH, this::complete)
+                // The client's pre-connect probe only needs the connection
+                .head(COMPLETIONS_PATH, (request, response) -> response.status(200).send()))
+            .bindNow();
+        logger.info("Mock AI agent listening on http://localhost:{} ({} latency, median {} ms, error rate {}, throttle rate {})",
+            server.port(), this.distribution, medianMs, errorRate, throttleRate);
+    }
+
+    private static ResponseFile load(ObjectMapper objectMapper, String location) {
+        try (InputStream in = MockAiAgentServer.class.getClassLoader().getResourceAsStream(location)) {
+            if (in == null) {
+                throw new IllegalStateException("Mock AI responses not found on classpath: " + location);
+            }
+            return objectMapper.readValue(in, ResponseFile.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read mock AI responses from " + location, e);
+        }
+    }
+
+    private Mono<Void> complete(HttpServerRequest request, HttpServerResponse response) {
+        return request.receive().aggregate().asString(StandardCharsets.UTF_8)
+            .defaultIfEmpty("")
+            .flatMap(body -> {
+                ChatCompletionRequest completion;
+                try {
+                    completion = objectMapper.readValue(body, ChatCompletionRequest.class);
+                } catch (JsonProcessingException e) {
+                    return response.status(400).sendString(Mono.just("Malformed request: " + e.getOriginalMessage())).then();
+                }
+                boolean stream = Boolean.TRUE.equals(completion.stream());
+                Outcome outcome = nextOutcome(stream);
+                Duration latency = Duration.ofMillis(nextLatencyMs());
+                meterRegistry.counter("ai.mock.requests", "outcome", outcome.name().toLowerCase(Locale.ROOT),
+                    "stream", String.valueOf(stream)).increment();
+
+                return switch (outcome) {
+                    case ERROR -> Mono.delay(latency).then(
+                        response.status(500).sendString(Mono.just("Injected upstream failure")).then());
+                    // Throttling is answered at once, as a real rate limiter would
+                    case THROTTLED -> response.status(429).header("Retry-After", "1")
+                        .sendString(Mono.just("Injected rate limit")).then();
+                    case HANG -> Mono.delay(Duration.ofMillis(hangMs)).then(
+                        response.status(504).sendString(Mono.just("Injected hang")).then());
+                    case OK, ABORT -> {
+                        String prompt = lastUserMessage(completion);
+                        String answer = pick(prompt);
+                        Usage usage = usage(completion, answer);
+                        yield stream
+                            ? streamAnswer(response, latency, answer, usage, outcome == Outcome.ABORT)
+                            : Mono.delay(latency).then(sendJson(response, new ChatCompletionResponse(
+                                List.of(new Choice(new ChatMessage("assistant", answer), "stop")), usage)));
+                    }
+                };
+            });
+    }
+
+    // First chunk after the drawn latency, then one word per token delay; an abort drops the connection halfway
+    private Mono<Void> streamAnswer(HttpServerResponse response, Duration firstToken, String answer, Usage usage,
+                                    boolean abort) {
+        List<String> words = List.of(answer.split("(?<= )"));
+        Flux<String> deltas = Flux.fromIterable(abort ? words.subList(0, words.size() / 2) : words)
+            .map(word -> chunk(new ChatCompletionChunk(List.of(new ChunkChoice(new ChatMessage(null, word), null)), null)));
+        Flux<String> ending = abort
+            ? Flux.error(new IllegalStateException("Injected stream abort"))
+            : Flux.just(chunk(new ChatCompletionChunk(List.of(), usage)), "data: [DONE]\n\n");
+        Flux<String> events = Mono.delay(firstToken)
+            .thenMany(deltas.concatWith(ending).delayElements(Duration.ofMillis(Math.max(tokenDelayMs, 1))));
+
+        return response.status(200)
+            .header("Content-Type", "text/event-stream")
+            .header("Cache-Control", "no-cache")
+            .sendString(events)
+            .then();
+    }
+
+    private Mono<Void> sendJson(HttpServerResponse response, Object body) {
+        try {
+            String json = objectMapper.writeValueAsString(body);
+            return response.status(200).header("Content-Type", "application/json")
+                .sendString(Mono.just(json)).then();
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+    }
+
+    private String chunk(ChatCompletionChunk chunk) {
+        try {
+            return "data: " + objectMapper.writeValueAsString(chunk) + "\n\n";
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not write mock AI stream chunk", e);
+        }
+    }
+
+    private Outcome nextOutcome(boolean stream) {
+        double roll = random.nextDouble();
+        if ((roll -= errorRate) < 0) {
+            return Outcome.ERROR;
+        }
+        if ((roll -= throttleRate) < 0) {
+            return Outcome.THROTTLED;
+        }
+        if ((roll -= hangRate) < 0) {
+            return Outcome.HANG;
+        }
+        if (stream && roll - abortRate < 0) {
+            return Outcome.ABORT;
+        }
+        return Outcome.OK;
+    }
+
+    private long nextLatencyMs() {
+        long latency = switch (distribution) {
+            case "fixed" -> medianMs;
+            case "uniform" -> minMs + (long) (random.nextDouble() * (maxMs - minMs));
+            default -> Math.round(medianMs * Math.exp(sigma * random.nextGaussian()));
+        };
+        return Math.max(0, Math.min(latency, maxMs));
+    }
+
+    private String pick(String prompt) {
+        String text = prompt.toLowerCase(Locale.ROOT);
+        ResponseRule rule = rules.stream()
+            .filter(candidate -> candidate.match() == null || text.contains(candidate.match().toLowerCase(Locale.ROOT)))
+            .findFirst()
+            .orElse(rules.get(rules.size() - 1));
+        return rule.replies().get(random.nextInt(rule.replies().size()));
+    }
+
+    private static String lastUserMessage(ChatCompletionRequest completion) {
+        List<ChatMessage> messages = completion.messages() == null ? List.of() : completion.messages();
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            if ("user".equals(messages.get(i).role()) && messages.get(i).content() != null) {
+                return messages.get(i).content();
+            }
+        }
+        return "";
+    }
+
+    private static Usage usage(ChatCompletionRequest completion, String answer) {
+        long promptTokens = completion.messages() == null ? 0 : completion.messages().stream()
+            .filter(message -> message.content() != null)
+            .mapToLong(message -> PromptBuilder.estimateTokens(message.content()))
+            .sum();
+        long completionTokens = PromptBuilder.estimateTokens(answer);
+        return new Usage(promptTokens, completionTokens, promptTokens + completionTokens);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        server.disposeNow();
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record ResponseFile(List<ResponseRule> rules) {
+    }
+
+    // match is a case-insensitive fragment of the prompt; a rule without one matches anything
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record ResponseRule(String match, List<String> replies) {
+    }
+}
@@ -2,8 +2,11 @@ package com.finsight.ai.controller;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,8 +15,11 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.finsight.ai.config.AsyncConfig;
 import com.finsight.ai.entity.User;
 import com.finsight.ai.service.AITipsService;
+import com.finsight.ai.service.AiRateLimiter;
+import com.finsight.ai.service.DailyTipService;
 import com.finsight.ai.service.UserService;
 
 @RestController
@@ -27,52 +33,77 @@ public class AITipsController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private DailyTipService dailyTipService;
+
+    @Autowired
+    private AiRateLimiter rateLimiter;
+
+    @Autowired
+    @Qualifier(AsyncConfig.AI_EXECUTOR)
+    private AsyncTaskExecutor aiExecutor;
+
     @GetMapping("/personalized")
-    public ResponseEntity<?> getPersonalizedTip(@RequestHeader("Authorization") String authToken) {
-        try {
-            String token = authToken.replace("Bearer ", "");
-            User user = userService.getUserFromToken(token);
-            
-            String tip = aiTipsService.generatePersonalizedTip(user);
-            return ResponseEntity.ok(Map.of("tip", tip));
-        } catch (RuntimeException e) {
-            return ResponseEntity.status(401).body(e.getMessage());
-        }
+    public CompletableFuture<ResponseEntity<?>> getPersonalizedTip(@RequestHeader("Authorization") String authToken) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                String token = authToken.replace("Bearer ", "");
+                User user = userService.getUserFromToken(token);
+
+                // Over the user's quota or the global cap: cached or rule-based tip, no agent call
+                AiRateLimiter.Permit permit = rateLimiter.tryAcquire(user.getId(), "tips-personalized", 2);
+                if (permit == null) {
+                    return ResponseEntity.ok(Map.of("tip", aiTipsService.getPersonalizedTipWithoutAgent(user)));
+                }
+                try (permit) {
+                    String tip = aiTipsService.generatePersonalizedTip(user);
+                    return ResponseEntity.ok(Map.of("tip", tip));
+                }
+            } catch (RuntimeException e) {
+                return ResponseEntity.status(401).body(e.getMessage());
+            }
+        }, aiExecutor);
     }
 
     @GetMapping("/multiple")
-    public ResponseEntity<?> getMultipleTips(@RequestHeader("Authorization") String authToken) {
-        try {
-            String token = authToken.replace("Bearer ", "");
-            User user = userService.getUserFromToken(token);
-            
-            List<String> tips = aiTipsService.getMultipleTips(user);
-            return ResponseEntity.ok(Map.of("tips", tips));
-        } catch (RuntimeException e) {
-            return ResponseEntity.status(401).body(e.getMessage());
-        }
+    public CompletableFuture<ResponseEntity<?>> getMultipleTips(@RequestHeader("Authorization") String authToken) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                String token = authToken.replace("Bearer ", "");
+                User user = userService.getUserFromToken(token);
+
+                AiRateLimiter.Permit permit = rateLimiter.tryAcquire(user.getId(), "tips-multiple", 1);
+                if (permit == null) {
+                    return ResponseEntity.ok(Map.of("tips", aiTipsService.getMultipleTipsWithoutAgent(user)));
+                }
+                try (permit) {
+                    List<String> tips = aiTipsService.getMultipleTips(user);
+                    return ResponseEntity.ok(Map.of("tips", tips));
+                }
+            } catch (RuntimeException e) {
+                return ResponseEntity.status(401).body(e.getMessage());
+            }
+        }, aiExecutor);
     }
 
     @GetMapping("/daily")
-    public ResponseEntity<?> getDailyTip(@RequestHeader(value = "Authorization", required = false) String authToken,
+    public CompletableFuture<ResponseEntity<?>> getDailyTip(@RequestHeader(value = "Authorization", required = false) String authToken,
                                        @RequestParam(required = false) String currency,
                                        @RequestParam(required = false) String country) {
-        try {
-            if (authToken != null && !authToken.isEmpty()) {
-                // Return personalized tip for authenticated user
-                String token = authToken.replace("Bearer ", "");
-                User user = userService.getUserFromToken(token);
-                String tip = aiTipsService.generatePersonalizedTip(user);
-                return ResponseEntity.ok(Map.of("tip", tip, "personalized", true));
-            } else {
-                // Return generic tip for unauthenticated users
-                String tip = aiTipsService.getDailyTip();
-                return ResponseEntity.ok(Map.of("tip", tip, "personalized", false));
-            }
-        } catch (RuntimeException e) {
-            // Fallback to generic tip if auth fails
-            String tip = aiTipsService.getDailyTip();
-            return ResponseEntity.ok(Map.of("tip", tip, "personalized", false));
+        if (authToken == null || authToken.isEmpty()) {
+            // Return generic tip for unauthenticated users
+            return CompletableFuture.completedFuture(genericDailyTip());
         }
+        // Precomputed personalized tip for authenticated users
+        return CompletableFuture.supplyAsync(() -> userService.getUserFromToken(authToken.replace("Bearer ", "")), aiExecutor)
+            .thenCompose(user -> dailyTipService.getDailyTip(user))
+            .<ResponseEntity<?>>thenApply(tip -> ResponseEntity.ok(Map.of("tip", tip, "personalized", true)))
+            // Fallback to generic tip if auth or generation fails
+            .exceptionally(e -> genericDailyTip());
+    }
+
+    private ResponseEntity<?> genericDailyTip() {
+        String tip = aiTipsService.getDailyTip();
+        return ResponseEntity.ok(Map.of("tip", tip, "personalized", false));
     }
 }
@@ -0,0 +1,53 @@
+package com.finsight.ai.controller;
+
+import com.finsight.ai.entity.User;
+import com.finsight.ai.service.CashFlowForecastService;
+import com.finsight.ai.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/cash-flow")
+@CrossOrigin(origins = "*")
+public class CashFlowController {
+
+    @Autowired
+    private CashFlowForecastService forecastService;
+
+    @Autowired
+    private UserService userService;
+
+    /* ==========================
+       Cash Flow Forecast
+    ========================== */
+    @GetMapping("/forecast")
+    public ResponseEntity<?> getForecast(
+            @RequestHeader("Authorization") String authToken,
+            @RequestParam(defaultValue = "90") int days) {
+
+        try {
+            User user = getUser(authToken);
+
+            return ResponseEntity.ok(
+                    Map.of(
+                            "currency", user.getPreferredCurrency(),
+                            "data", forecastService.forecast(user, days)
+                    )
+            );
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private User getUser(String authToken) {
+        if (authToken == null || !authToken.startsWith("Bearer ")) {
+            throw new RuntimeException("Invalid authorization token");
+        }
+        return userService.getUserFromToken(authToken.substring(7));
+    }
+}
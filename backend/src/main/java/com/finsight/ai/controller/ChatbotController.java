@@ -1,27 +1,28 @@
 package com.finsight.ai.controller;
 
-import java.math.BigDecimal;
-import java.time.LocalDate;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 
-import com.finsight.ai.entity.Budget;
-import com.finsight.ai.entity.Expense;
-import com.finsight.ai.entity.ExpenseCategory;
+import com.finsight.ai.config.AsyncConfig;
 import com.finsight.ai.entity.User;
-import com.finsight.ai.service.BudgetService;
 import com.finsight.ai.service.ChatbotService;
-import com.finsight.ai.service.ExpenseService;
 import com.finsight.ai.service.FirebaseAuthService;
 import com.finsight.ai.service.UserService;
-import com.google.firebase.auth.FirebaseToken;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 @RestController
 @RequestMapping("/ai-chatbot")
@@ -38,6 +39,8 @@ import com.google.firebase.auth.FirebaseToken;
 )
 public class ChatbotController {
 
+    private static final Logger logger = LoggerFactory.getLogger(ChatbotController.class);
+
     @Autowired
     private ChatbotService chatbotService;
 
@@ -48,157 +51,131 @@ public class ChatbotController {
     private UserService userService;
 
     @Autowired
-    private ExpenseService expenseService;
-
-    @Autowired
-    private BudgetService budgetService;
+    @Qualifier(AsyncConfig.AI_EXECUTOR)
+    private AsyncTaskExecutor aiExecutor;
 
     @PostMapping
-    public ResponseEntity<Map<String, String>> chat(
+    public CompletableFuture<ResponseEntity<Map<String, String>>> chat(
             @RequestHeader("Authorization") String authHeader,
             @RequestBody Map<String, Object> payload) {
 
-        try {
-            /* ==========================
-               1️⃣ Firebase Auth
-            ========================== */
-            String token = authHeader.replace("Bearer ", "");
-            FirebaseToken firebaseToken = firebaseAuthService.verifyToken(token);
-
-            if (firebaseToken == null) {
-                return ResponseEntity.status(401)
-                        .body(Map.of("error", "Invalid authentication token"));
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                /* ==========================
+                   1️⃣ Firebase Auth
+                ========================== */
+                String token = authHeader.replace("Bearer ", "");
+                String firebaseUid = firebaseAuthService.getUserIdFromToken(token);
+
+                if (firebaseUid == null) {
+                    return ResponseEntity.status(401)
+                            .body(Map.of("error", "Invalid authentication token"));
+                }
+
+                Optional<User> userOptional =
+                        userService.getUserByFirebaseUid(firebaseUid);
+
+                if (userOptional.isEmpty()) {
+                    return ResponseEntity.badRequest()
+                            .body(Map.of("error", "User not found"));
+                }
+
+                User user = userOptional.get();
+
+                /* ==========================
+                   2️⃣ Request Inputs
+                ========================== */
+                String userMessage = (String) payload.get("message");
+
+                // India defaults
+                String currency =
+                        (String) payload.getOrDefault("currency", "INR");
+
+                /* ==========================
+                   3️⃣ AI Reply (financial context is loaded lazily, only for prompts that use it)
+                ========================== */
+                String aiReply =
+                        chatbotService.getChatbotReply(
+                                userMessage, user, currency);
+
+                return ResponseEntity.ok(
+                        Map.of("reply", aiReply)
+                );
+
+            } catch (Exception e) {
+                logger.error("Chatbot error", e);
+                return ResponseEntity.internalServerError()
+                        .body(Map.of(
+                                "error",
+                                "Failed to process chat request"
+                        ));
             }
+        }, aiExecutor);
+    }
 
-            String firebaseUid = firebaseToken.getUid();
+    /* ==========================
+       Data question answered by agent-written SQL; repeat question shapes run a cached template instead
+    ========================== */
+    @PostMapping("/query")
+    public CompletableFuture<ResponseEntity<Map<String, String>>> query(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestBody Map<String, Object> payload) {
 
-            Optional<User> userOptional =
-                    userService.getUserByFirebaseUid(firebaseUid);
+        String userMessage = (String) payload.get("message");
+        if (userMessage == null || userMessage.isBlank()) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body(Map.of("error", "Message is required")));
+        }
 
-            if (userOptional.isEmpty()) {
-                return ResponseEntity.badRequest()
-                        .body(Map.of("error", "User not found"));
+        return CompletableFuture.supplyAsync(() -> {
+            User user;
+            try {
+                user = resolveUser(authHeader);
+            } catch (RuntimeException e) {
+                return ResponseEntity.status(401).body(Map.of("error", e.getMessage()));
+            }
+            try {
+                return ResponseEntity.ok(Map.of("reply", chatbotService.handleAIQuery(userMessage, user)));
+            } catch (Exception e) {
+                logger.error("Chatbot query error for user {}", user.getId(), e);
+                return ResponseEntity.internalServerError()
+                        .body(Map.of("error", "Failed to process query"));
             }
+        }, aiExecutor);
+    }
+
+    /* ==========================
+       Streaming reply (SSE): "token" events as the agent produces them, then "done"
+    ========================== */
+    @PostMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamChat(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestBody Map<String, Object> payload) {
+
+        String userMessage = (String) payload.get("message");
+        String currency = (String) payload.getOrDefault("currency", "INR");
+
+        // Auth and prompt building block on Firebase and the database, so they run on the AI executor.
+        // When the client disconnects the subscription is cancelled, which closes the upstream stream.
+        return Mono.fromCallable(() -> resolveUser(authHeader))
+                .flatMapMany(user -> chatbotService.streamChatbotReply(userMessage, user, currency))
+                .subscribeOn(Schedulers.fromExecutor(aiExecutor))
+                .map(token -> ServerSentEvent.builder(token).event("token").build())
+                .concatWith(Mono.just(ServerSentEvent.builder("").event("done").build()))
+                .onErrorResume(e -> {
+                    logger.warn("Chatbot stream error: {}", e.getMessage());
+                    return Mono.just(ServerSentEvent.builder("Failed to process chat request").event("error").build());
+                });
+    }
 
-            User user = userOptional.get();
-
-            /* ==========================
-               2️⃣ Request Inputs
-            ========================== */
-            String userMessage = (String) payload.get("message");
-
-            // India defaults
-            String currency =
-                    (String) payload.getOrDefault("currency", "INR");
-            String region =
-                    (String) payload.getOrDefault("region", "IN");
-
-            /* ==========================
-               3️⃣ Date Ranges (Indian Finance)
-            ========================== */
-            LocalDate today = LocalDate.now();
-            LocalDate monthStart = today.withDayOfMonth(1);
-            LocalDate monthEnd = today.withDayOfMonth(today.lengthOfMonth());
-
-            LocalDate sixMonthsAgo = today.minusMonths(6);
-
-            /* ==========================
-               4️⃣ Expense & Budget Data
-            ========================== */
-            List<Expense> allExpenses =
-                    expenseService.getUserExpenses(user);
-
-            List<Expense> currentMonthExpenses =
-                    expenseService.getUserExpensesByDateRange(
-                            user, monthStart, monthEnd);
-
-            List<Expense> lastSixMonthExpenses =
-                    expenseService.getUserExpensesByDateRange(
-                            user, sixMonthsAgo, today);
-
-            List<Budget> currentBudgets =
-                    budgetService.getUserBudgetsByMonth(
-                            user, today.getMonthValue(), today.getYear());
-
-            List<Budget> allBudgets =
-                    budgetService.getUserBudgets(user);
-
-            /* ==========================
-               5️⃣ Calculations
-            ========================== */
-            BigDecimal spentThisMonth =
-                    expenseService.getTotalExpenses(user, monthStart, monthEnd);
-
-            BigDecimal spentLastSixMonths =
-                    expenseService.getTotalExpenses(user, sixMonthsAgo, today);
-
-            BigDecimal lifetimeSpending =
-                    allExpenses.stream()
-                            .map(Expense::getAmount)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            Map<ExpenseCategory, BigDecimal> categoryWiseSpending =
-                    expenseService.getExpensesByCategory(
-                            user, monthStart, monthEnd);
-
-            BigDecimal totalMonthlyBudget =
-                    currentBudgets.stream()
-                            .map(Budget::getMonthlyLimit)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            double monthlyAverage =
-                    lastSixMonthExpenses.isEmpty()
-                            ? 0.0
-                            : spentLastSixMonths
-                                    .divide(BigDecimal.valueOf(6), 2, BigDecimal.ROUND_HALF_UP)
-                                    .doubleValue();
-
-            /* ==========================
-               6️⃣ AI Context (India-Friendly)
-            ========================== */
-            Map<String, Object> aiContext = new HashMap<>();
-            aiContext.put("message", userMessage);
-            aiContext.put("currency", currency);
-            aiContext.put("region", region);
-            aiContext.put("country", "India");
-            aiContext.put("userName", user.getFirstName());
-
-            aiContext.put("currentMonth", today.getMonth().toString());
-            aiContext.put("currentYear", today.getYear());
-
-            aiContext.put("spentThisMonth", spentThisMonth);
-            aiContext.put("monthlyBudget", totalMonthlyBudget);
-            aiContext.put("expenseCountThisMonth", currentMonthExpenses.size());
-
-            aiContext.put("spentLast6Months", spentLastSixMonths);
-            aiContext.put("lifetimeSpending", lifetimeSpending);
-            aiContext.put("monthlyAverage", BigDecimal.valueOf(monthlyAverage));
-
-            aiContext.put("categoryBreakdown", categoryWiseSpending);
-            aiContext.put("budgetCount", allBudgets.size());
-
-            aiContext.put("financeContext",
-                    "Indian user, INR currency, EMI & monthly budgeting mindset");
-
-            /* ==========================
-               7️⃣ AI Reply
-            ========================== */
-            String aiReply =
-                    chatbotService.getChatbotReply(
-                            userMessage, firebaseUid, currency);
-
-            return ResponseEntity.ok(
-                    Map.of("reply", aiReply)
-            );
-
-        } catch (Exception e) {
-            System.err.println("Chatbot error: " + e.getMessage());
-            return ResponseEntity.internalServerError()
-                    .body(Map.of(
-                            "error",
-                            "Failed to process chat request"
-                    ));
+    private User resolveUser(String authHeader) {
+        String token = authHeader.replace("Bearer ", "");
+        String firebaseUid = firebaseAuthService.getUserIdFromToken(token);
+        if (firebaseUid == null) {
+            throw new RuntimeException("Invalid authentication token");
         }
+        return userService.getUserByFirebaseUid(firebaseUid)
+                .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
     @RequestMapping(method = RequestMethod.OPTIONS)
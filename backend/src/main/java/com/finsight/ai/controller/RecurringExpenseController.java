@@ -0,0 +1,59 @@
+package com.finsight.ai.controller;
+
+import com.finsight.ai.entity.User;
+import com.finsight.ai.service.RecurringProjectionService;
+import com.finsight.ai.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/recurring-expenses")
+@CrossOrigin(origins = "*")
+public class RecurringExpenseController {
+
+    @Autowired
+    private RecurringProjectionService projectionService;
+
+    @Autowired
+    private UserService userService;
+
+    /* ==========================
+       Upcoming Bills Projection
+    ========================== */
+    @GetMapping("/projection")
+    public ResponseEntity<?> getProjection(
+            @RequestHeader("Authorization") String authToken,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate startDate,
+            @RequestParam(defaultValue = "12") int months) {
+
+        try {
+            User user = getUser(authToken);
+            LocalDate from = startDate != null ? startDate : LocalDate.now();
+
+            return ResponseEntity.ok(
+                    Map.of(
+                            "currency", user.getPreferredCurrency(),
+                            "data", projectionService.project(user, from, months)
+                    )
+            );
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private User getUser(String authToken) {
+        if (authToken == null || !authToken.startsWith("Bearer ")) {
+            throw new RuntimeException("Invalid authorization token");
+        }
+        return userService.getUserFromToken(authToken.substring(7));
+    }
+}
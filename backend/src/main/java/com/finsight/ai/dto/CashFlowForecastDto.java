@@ -0,0 +1,103 @@
+package com.finsight.ai.dto;
+
+import com.finsight.ai.entity.ExpenseCategory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+// Server-side cash-flow forecast; instances are cached and shared between requests
+public class CashFlowForecastDto {
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final int observedDays;
+    private final String trend;
+    private final BigDecimal averageMonthlySpending;
+    private final BigDecimal totalForecast;
+    private final Map<ExpenseCategory, BigDecimal> categoryForecasts;
+    private final List<PeriodForecast> months;
+
+    public CashFlowForecastDto(LocalDate startDate, LocalDate endDate, int observedDays, String trend,
+                               BigDecimal averageMonthlySpending, BigDecimal totalForecast,
+                               Map<ExpenseCategory, BigDecimal> categoryForecasts, List<PeriodForecast> months) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.observedDays = observedDays;
+        this.trend = trend;
+        this.averageMonthlySpending = averageMonthlySpending;
+        this.totalForecast = totalForecast;
+        this.categoryForecasts = Map.copyOf(categoryForecasts);
+        this.months = List.copyOf(months);
+    }
+
+    // Getters
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public int getObservedDays() {
+        return observedDays;
+    }
+
+    public String getTrend() {
+        return trend;
+    }
+
+    public BigDecimal getAverageMonthlySpending() {
+        return averageMonthlySpending;
+    }
+
+    public BigDecimal getTotalForecast() {
+        return totalForecast;
+    }
+
+    public Map<ExpenseCategory, BigDecimal> getCategoryForecasts() {
+        return categoryForecasts;
+    }
+
+    public List<PeriodForecast> getMonths() {
+        return months;
+    }
+
+    public static class PeriodForecast {
+        private final String period;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private final BigDecimal totalAmount;
+        private final Map<ExpenseCategory, BigDecimal> categoryAmounts;
+
+        public PeriodForecast(String period, LocalDate startDate, LocalDate endDate, BigDecimal totalAmount,
+                              Map<ExpenseCategory, BigDecimal> categoryAmounts) {
+            this.period = period;
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.totalAmount = totalAmount;
+            this.categoryAmounts = Map.copyOf(categoryAmounts);
+        }
+
+        public String getPeriod() {
+            return period;
+        }
+
+        public LocalDate getStartDate() {
+            return startDate;
+        }
+
+        public LocalDate getEndDate() {
+            return endDate;
+        }
+
+        public BigDecimal getTotalAmount() {
+            return totalAmount;
+        }
+
+        public Map<ExpenseCategory, BigDecimal> getCategoryAmounts() {
+            return categoryAmounts;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.finsight.ai.dto;
+
+import com.finsight.ai.entity.ExpenseCategory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+// Read-only projection of upcoming recurring charges; instances are cached and shared between requests
+public class RecurringProjectionDto {
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final int occurrences;
+    private final BigDecimal totalAmount;
+    private final Map<ExpenseCategory, BigDecimal> categoryTotals;
+    private final List<DailyProjection> days;
+
+    public RecurringProjectionDto(LocalDate startDate, LocalDate endDate, int occurrences, BigDecimal totalAmount,
+                                  Map<ExpenseCategory, BigDecimal> categoryTotals, List<DailyProjection> days) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.occurrences = occurrences;
+        this.totalAmount = totalAmount;
+        this.categoryTotals = Map.copyOf(categoryTotals);
+        this.days = List.copyOf(days);
+    }
+
+    // Getters
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public int getOccurrences() {
+        return occurrences;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public Map<ExpenseCategory, BigDecimal> getCategoryTotals() {
+        return categoryTotals;
+    }
+
+    public List<DailyProjection> getDays() {
+        return days;
+    }
+
+    public static class DailyProjection {
+        private final LocalDate date;
+        private final BigDecimal totalAmount;
+        private final Map<ExpenseCategory, BigDecimal> categoryAmounts;
+
+        public DailyProjection(LocalDate date, BigDecimal totalAmount, Map<ExpenseCategory, BigDecimal> categoryAmounts) {
+            this.date = date;
+            this.totalAmount = totalAmount;
+            this.categoryAmounts = Map.copyOf(categoryAmounts);
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public BigDecimal getTotalAmount() {
+            return totalAmount;
+        }
+
+        public Map<ExpenseCategory, BigDecimal> getCategoryAmounts() {
+            return categoryAmounts;
+        }
+    }
+}
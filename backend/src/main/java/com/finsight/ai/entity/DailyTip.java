@@ -0,0 +1,90 @@
+package com.finsight.ai.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A user's precomputed daily tip. One row per user, overwritten by the nightly batch, so the
+ * daily-tip endpoint reads it through the unique user index.
+ */
+@Entity
+@Table(
+    name = "daily_tips",
+    indexes = {
+        @Index(name = "idx_daily_tip_user", columnList = "userId", unique = true)
+    }
+)
+public class DailyTip {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Column(nullable = false)
+    private Long userId;
+
+    // The day the tip was generated for; anything before today is stale
+    @NotNull
+    @Column(nullable = false)
+    private LocalDate tipDate;
+
+    @NotNull
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String tip;
+
+    @Column(nullable = false)
+    private LocalDateTime generatedAt;
+
+    public DailyTip() {}
+
+    public DailyTip(Long userId, LocalDate tipDate, String tip) {
+        this.userId = userId;
+        this.tipDate = tipDate;
+        this.tip = tip;
+        this.generatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public LocalDate getTipDate() {
+        return tipDate;
+    }
+
+    public void setTipDate(LocalDate tipDate) {
+        this.tipDate = tipDate;
+    }
+
+    public String getTip() {
+        return tip;
+    }
+
+    public void setTip(String tip) {
+        this.tip = tip;
+    }
+
+    public LocalDateTime getGeneratedAt() {
+        return generatedAt;
+    }
+
+    public void setGeneratedAt(LocalDateTime generatedAt) {
+        this.generatedAt = generatedAt;
+    }
+}
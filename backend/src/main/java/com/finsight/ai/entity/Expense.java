@@ -13,7 +13,13 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "expenses")
+@Table(
+    name = "expenses",
+    uniqueConstraints = {
+        // One generated expense per schedule and due date keeps recurring materialization idempotent
+        @UniqueConstraint(name = "uk_expenses_recurring_due", columnNames = {"recurring_expense_id", "recurrence_due_date"})
+    }
+)
 public class Expense {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -58,6 +64,9 @@ public class Expense {
     @JsonIgnore
     private RecurringExpense recurringExpense;
 
+    @Column(name = "recurrence_due_date")
+    private LocalDate recurrenceDueDate;
+
     public Expense() {}
 
     public Expense(String description, BigDecimal amount, ExpenseCategory category, LocalDate date, User user) {
@@ -156,4 +165,12 @@ public class Expense {
     public void setRecurringExpense(RecurringExpense recurringExpense) {
         this.recurringExpense = recurringExpense;
     }
+
+    public LocalDate getRecurrenceDueDate() {
+        return recurrenceDueDate;
+    }
+
+    public void setRecurrenceDueDate(LocalDate recurrenceDueDate) {
+        this.recurrenceDueDate = recurrenceDueDate;
+    }
 }
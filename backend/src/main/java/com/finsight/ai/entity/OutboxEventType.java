@@ -0,0 +1,24 @@
+package com.finsight.ai.entity;
+
+public enum OutboxEventType {
+    EXPENSE_CREATED("Expense created"),
+    EXPENSE_UPDATED("Expense updated"),
+    EXPENSE_DELETED("Expense deleted"),
+    BUDGET_CREATED("Budget created"),
+    BUDGET_UPDATED("Budget updated"),
+    BUDGET_DELETED("Budget deleted");
+
+    private final String displayName;
+
+    OutboxEventType(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public boolean isExpenseEvent() {
+        return this == EXPENSE_CREATED || this == EXPENSE_UPDATED || this == EXPENSE_DELETED;
+    }
+}
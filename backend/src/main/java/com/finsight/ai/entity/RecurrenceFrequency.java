@@ -1,5 +1,7 @@
 package com.finsight.ai.entity;
 
+import java.time.LocalDate;
+
 public enum RecurrenceFrequency {
     DAILY("Daily"),
     WEEKLY("Weekly"),
@@ -16,4 +18,22 @@ public enum RecurrenceFrequency {
     public String getDisplayName() {
         return displayName;
     }
+
+    // Next occurrence after the given one; month-based steps clamp to the end of shorter months
+    public LocalDate next(LocalDate date) {
+        switch (this) {
+            case DAILY:
+                return date.plusDays(1);
+            case WEEKLY:
+                return date.plusWeeks(1);
+            case MONTHLY:
+                return date.plusMonths(1);
+            case QUARTERLY:
+                return date.plusMonths(3);
+            case YEARLY:
+                return date.plusYears(1);
+            default:
+                return date;
+        }
+    }
 }
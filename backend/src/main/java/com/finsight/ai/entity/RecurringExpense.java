@@ -1,6 +1,7 @@
 package com.finsight.ai.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.finsight.ai.service.RecurringExpenseIndexListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
@@ -15,6 +16,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "recurring_expenses")
+@EntityListeners(RecurringExpenseIndexListener.class)
 public class RecurringExpense {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -84,20 +86,7 @@ public class RecurringExpense {
 
     // Helper method to calculate next due date
     public LocalDate calculateNextDueDate() {
-        switch (frequency) {
-            case DAILY:
-                return nextDueDate.plusDays(1);
-            case WEEKLY:
-                return nextDueDate.plusWeeks(1);
-            case MONTHLY:
-                return nextDueDate.plusMonths(1);
-            case QUARTERLY:
-                return nextDueDate.plusMonths(3);
-            case YEARLY:
-                return nextDueDate.plusYears(1);
-            default:
-                return nextDueDate;
-        }
+        return frequency.next(nextDueDate);
     }
 
     // Getters and Setters
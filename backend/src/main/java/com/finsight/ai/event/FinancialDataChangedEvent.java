@@ -0,0 +1,96 @@
+package com.finsight.ai.event;
+
+import com.finsight.ai.entity.ExpenseCategory;
+import com.finsight.ai.entity.OutboxEventType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * In-process notification for an expense or budget change, published by the outbox relay.
+ * Delivery is at-least-once and ordered per user, so listeners must be idempotent.
+ */
+public class FinancialDataChangedEvent {
+
+    private final Long outboxId;
+    private final OutboxEventType type;
+    private final Long userId;
+    private final Long aggregateId;
+    private final ExpenseCategory category;
+    private final LocalDate date;
+    private final ExpenseCategory previousCategory;
+    private final LocalDate previousDate;
+    private final BigDecimal amount;
+    private final LocalDateTime occurredAt;
+
+    public FinancialDataChangedEvent(Long outboxId, OutboxEventType type, Long userId, Long aggregateId,
+                                     ChangePayload payload, LocalDateTime occurredAt) {
+        this.outboxId = outboxId;
+        this.type = type;
+        this.userId = userId;
+        this.aggregateId = aggregateId;
+        this.category = payload.category();
+        this.date = payload.date();
+        this.previousCategory = payload.previousCategory();
+        this.previousDate = payload.previousDate();
+        this.amount = payload.amount();
+        this.occurredAt = occurredAt;
+    }
+
+    // Earliest date touched by this change (an update may move an expense back in time)
+    public LocalDate getEarliestAffectedDate() {
+        if (previousDate != null && (date == null || previousDate.isBefore(date))) {
+            return previousDate;
+        }
+        return date;
+    }
+
+    public Long getOutboxId() {
+        return outboxId;
+    }
+
+    public OutboxEventType getType() {
+        return type;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getAggregateId() {
+        return aggregateId;
+    }
+
+    public ExpenseCategory getCategory() {
+        return category;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public ExpenseCategory getPreviousCategory() {
+        return previousCategory;
+    }
+
+    public LocalDate getPreviousDate() {
+        return previousDate;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    /**
+     * JSON body stored in the outbox row. Budgets use the first day of their month as the date.
+     */
+    public record ChangePayload(ExpenseCategory category, LocalDate date,
+                                ExpenseCategory previousCategory, LocalDate previousDate,
+                                BigDecimal amount) {
+    }
+}
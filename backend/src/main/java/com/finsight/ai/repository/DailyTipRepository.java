@@ -0,0 +1,12 @@
+package com.finsight.ai.repository;
+
+import com.finsight.ai.entity.DailyTip;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface DailyTipRepository extends JpaRepository<DailyTip, Long> {
+    Optional<DailyTip> findByUserId(Long userId);
+}
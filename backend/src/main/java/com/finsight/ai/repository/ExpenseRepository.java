@@ -2,6 +2,7 @@ package com.finsight.ai.repository;
 
 import com.finsight.ai.entity.Expense;
 import com.finsight.ai.entity.ExpenseCategory;
+import com.finsight.ai.entity.RecurringExpense;
 import com.finsight.ai.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -18,6 +19,8 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
     List<Expense> findByUserAndDateBetweenOrderByDateDesc(User user, LocalDate startDate, LocalDate endDate);
     List<Expense> findByUserAndCategoryOrderByDateDesc(User user, ExpenseCategory category);
     List<Expense> findByUserAndCategoryAndDateBetweenOrderByDateDesc(User user, ExpenseCategory category, LocalDate startDate, LocalDate endDate);
+    boolean existsByRecurringExpenseAndRecurrenceDueDate(RecurringExpense recurringExpense, LocalDate recurrenceDueDate);
+    long countByUserAndDateBetween(User user, LocalDate startDate, LocalDate endDate);
 
     @Query("SELECT SUM(e.amount) FROM Expense e WHERE e.user = :user AND e.date BETWEEN :startDate AND :endDate")
     BigDecimal getTotalExpensesBetweenDates(@Param("user") User user, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
@@ -30,4 +33,15 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
 
     @Query("SELECT DATE(e.date), SUM(e.amount) FROM Expense e WHERE e.user = :user AND e.date BETWEEN :startDate AND :endDate GROUP BY DATE(e.date) ORDER BY DATE(e.date)")
     List<Object[]> getDailyExpensesBetweenDates(@Param("user") User user, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    // Single row (first expense date, lifetime total); both null when the user has no expenses
+    @Query("SELECT MIN(e.date), SUM(e.amount) FROM Expense e WHERE e.user = :user")
+    List<Object[]> getFirstExpenseDateAndTotal(@Param("user") User user);
+
+    @Query("SELECT YEAR(e.date), MONTH(e.date), SUM(e.amount) FROM Expense e WHERE e.user = :user AND e.date BETWEEN :startDate AND :endDate GROUP BY YEAR(e.date), MONTH(e.date)")
+    List<Object[]> getMonthlyTotalsBetweenDates(@Param("user") User user, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    // Daily per-category rollup (date, category, total) feeding the cash-flow forecast models
+    @Query("SELECT e.date, e.category, SUM(e.amount) FROM Expense e WHERE e.user = :user AND e.date BETWEEN :startDate AND :endDate GROUP BY e.date, e.category ORDER BY e.date")
+    List<Object[]> getDailyCategoryTotalsBetweenDates(@Param("user") User user, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 }
@@ -2,13 +2,17 @@ package com.finsight.ai.repository;
 
 import com.finsight.ai.entity.RecurringExpense;
 import com.finsight.ai.entity.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface RecurringExpenseRepository extends JpaRepository<RecurringExpense, Long> {
@@ -20,4 +24,16 @@ public interface RecurringExpenseRepository extends JpaRepository<RecurringExpen
 
     @Query("SELECT r FROM RecurringExpense r WHERE r.user = :user AND r.isActive = true AND r.nextDueDate BETWEEN :startDate AND :endDate")
     List<RecurringExpense> findUpcomingRecurringExpenses(@Param("user") User user, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    // Keyset page of (schedule id, user id) pairs so the scheduler can partition work by user
+    @Query("SELECT r.id, r.user.id FROM RecurringExpense r WHERE r.isActive = true AND r.nextDueDate <= :date AND r.id > :afterId ORDER BY r.id")
+    List<Object[]> findDueScheduleKeys(@Param("date") LocalDate date, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM RecurringExpense r WHERE r.id = :id")
+    Optional<RecurringExpense> findByIdForUpdate(@Param("id") Long id);
+
+    // (schedule id, user id, next due date) of every active schedule, used to seed the in-memory due index
+    @Query("SELECT r.id, r.user.id, r.nextDueDate FROM RecurringExpense r WHERE r.isActive = true")
+    List<Object[]> findActiveScheduleKeys();
 }
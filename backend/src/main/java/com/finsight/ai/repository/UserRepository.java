@@ -1,9 +1,14 @@
 package com.finsight.ai.repository;
 
 import com.finsight.ai.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +17,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByFirebaseUid(String firebaseUid);
     boolean existsByEmail(String email);
+
+    // Users with AI insights on who recorded an expense since the cutoff, in id order for keyset paging
+    @Query("SELECT u FROM User u WHERE u.id > :afterId AND u.aiInsightsEnabled = true " +
+           "AND EXISTS (SELECT 1 FROM Expense e WHERE e.user = u AND e.createdAt >= :activeSince) ORDER BY u.id")
+    List<User> findActiveAfter(@Param("afterId") Long afterId, @Param("activeSince") LocalDateTime activeSince, Pageable pageable);
 }
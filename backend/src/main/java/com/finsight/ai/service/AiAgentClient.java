@@ -0,0 +1,237 @@
+package com.finsight.ai.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The single client for the AI agent's chat completions API, shared by tips and chatbot.
+ *
+ * Connections come from one bounded Reactor Netty pool, so keep-alive connections are reused
+ * across services. Requests and responses are typed records bound by Jackson, and the token usage
+ * reported by the agent is accumulated in the {@code ai.agent.tokens} counters.
+ */
+@Component
+public class AiAgentClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(AiAgentClient.class);
+
+    private static final String COMPLETIONS_PATH = "/api/v1/chat/completions";
+    private static final String STREAM_DONE = "[DONE]";
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_TYPE =
+        new ParameterizedTypeReference<>() {};
+
+    private final WebClient webClient;
+    private final ConnectionProvider connectionProvider;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final boolean configured;
+    private final long preconnectAfterNanos;
+    private final Counter preconnects;
+    // System.nanoTime() of the last request or pre-connect sent through the pool
+    private final AtomicLong lastUsed;
+
+    public AiAgentClient(WebClient.Builder webClientBuilder,
+                         MeterRegistry meterRegistry,
+                         ObjectMapper objectMapper,
+                         @Value("${ai.agent.api.url:${gradient.ai.agent.api.url:}}") String apiUrl,
+                         @Value("${ai.agent.api.key:${gradient.ai.agent.api.key:}}") String apiKey,
+                         @Value("${app.ai.pool.max-connections:50}") int maxConnections,
+                         @Value("${app.ai.pool.pending-acquire-timeout-ms:2000}") long pendingAcquireTimeoutMs,
+                         @Value("${app.ai.pool.max-idle-ms:30000}") long maxIdleMs,
+                         @Value("${app.ai.pool.max-life-ms:300000}") long maxLifeMs,
+                         @Value("${app.ai.connect-timeout-ms:2000}") int connectTimeoutMs,
+                         @Value("${app.ai.preconnect-after-idle-ms:15000}") long preconnectAfterIdleMs) {
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.configured = !apiUrl.isBlank() && !apiKey.isBlank();
+        this.connectionProvider = ConnectionProvider.builder("ai-agent")
+            .maxConnections(maxConnections)
+            .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+            .maxIdleTime(Duration.ofMillis(maxIdleMs))
+            .maxLifeTime(Duration.ofMillis(maxLifeMs))
+            .evictInBackground(Duration.ofSeconds(30))
+            .build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+            .keepAlive(true);
+
+        this.webClient = webClientBuilder.clone()
+            .baseUrl(apiUrl)
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
+            .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .build();
+
+        this.preconnectAfterNanos = Duration.ofMillis(Math.min(preconnectAfterIdleMs, maxIdleMs)).toNanos();
+        this.preconnects = meterRegistry.counter("ai.agent.preconnects");
+        this.lastUsed = new AtomicLong(System.nanoTime() - preconnectAfterNanos);
+    }
+
+    /**
+     * Warms the pool ahead of a completion whose prompt is still being assembled. When no request
+     * went out recently the idle connections have likely been evicted, so a bodiless HEAD opens a
+     * fresh keep-alive connection (TCP and TLS) in the background; the completion then finds it
+     * pooled. Returns immediately and never fails the caller.
+     */
+    public void preconnect() {
+        long now = System.nanoTime();
+        long last = lastUsed.get();
+        if (!configured || now - last < preconnectAfterNanos || !lastUsed.compareAndSet(last, now)) {
+            return;
+        }
+        preconnects.increment();
+        webClient.head()
+            .uri(COMPLETIONS_PATH)
+            .exchangeToMono(response -> response.releaseBody())
+            .subscribe(null, e -> logger.debug("AI agent pre-connect failed: {}", e.getMessage()));
+    }
+
+    public boolean isConfigured() {
+        return configured;
+    }
+
+    // Single-turn completion; returns the trimmed answer, or null when the agent answered with nothing
+    public String complete(String operation, String prompt, int maxTokens, double temperature, Duration timeout) {
+        return complete(operation, List.of(new ChatMessage("user", prompt)), maxTokens, temperature, timeout);
+    }
+
+    public String complete(String operation, List<ChatMessage> messages, int maxTokens, double temperature,
+                           Duration timeout) {
+        lastUsed.set(System.nanoTime());
+        ChatCompletionResponse response = webClient.post()
+            .uri(COMPLETIONS_PATH)
+            .bodyValue(new ChatCompletionRequest(messages, maxTokens, temperature, null))
+            .retrieve()
+            .bodyToMono(ChatCompletionResponse.class)
+            .block(timeout);
+
+        if (response == null) {
+            logger.warn("AI agent returned an empty body for {}", operation);
+            return null;
+        }
+        recordUsage(operation, response.usage());
+
+        String content = response.firstContent();
+        if (content == null || content.isBlank()) {
+            logger.warn("AI agent returned no content for {}", operation);
+            return null;
+        }
+        return content.trim();
+    }
+
+    /**
+     * Streamed completion: emits content deltas as the agent produces them. Cancelling the
+     * subscription closes the upstream connection.
+     */
+    public Flux<String> stream(String operation, String prompt, int maxTokens, double temperature) {
+        lastUsed.set(System.nanoTime());
+        return webClient.post()
+            .uri(COMPLETIONS_PATH)
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .bodyValue(new ChatCompletionRequest(List.of(new ChatMessage("user", prompt)), maxTokens, temperature, true))
+            .retrieve()
+            .bodyToFlux(SSE_TYPE)
+            .mapNotNull(ServerSentEvent::data)
+            .takeWhile(data -> !STREAM_DONE.equals(data.trim()))
+            .map(this::readChunk)
+            .doOnNext(chunk -> recordUsage(operation, chunk.usage()))
+            .map(ChatCompletionChunk::firstDelta)
+            .filter(delta -> !delta.isEmpty());
+    }
+
+    private ChatCompletionChunk readChunk(String data) {
+        try {
+            return objectMapper.readValue(data, ChatCompletionChunk.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Malformed AI agent stream chunk: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    private void recordUsage(String operation, Usage usage) {
+        if (usage == null) {
+            return;
+        }
+        tokens(operation, "prompt").increment(usage.promptTokens());
+        tokens(operation, "completion").increment(usage.completionTokens());
+    }
+
+    private Counter tokens(String operation, String type) {
+        return meterRegistry.counter("ai.agent.tokens", "operation", operation, "type", type);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        connectionProvider.dispose();
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record ChatMessage(String role, String content) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record ChatCompletionRequest(List<ChatMessage> messages,
+                                        @JsonProperty("max_tokens") Integer maxTokens,
+                                        Double temperature,
+                                        Boolean stream) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record ChatCompletionResponse(List<Choice> choices, Usage usage) {
+        public String firstContent() {
+            if (choices == null || choices.isEmpty() || choices.get(0).message() == null) {
+                return null;
+            }
+            return choices.get(0).message().content();
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Choice(ChatMessage message, @JsonProperty("finish_reason") String finishReason) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record ChatCompletionChunk(List<ChunkChoice> choices, Usage usage) {
+        public String firstDelta() {
+            if (choices == null || choices.isEmpty() || choices.get(0).delta() == null
+                || choices.get(0).delta().content() == null) {
+                return "";
+            }
+            return choices.get(0).delta().content();
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record ChunkChoice(ChatMessage delta, @JsonProperty("finish_reason") String finishReason) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Usage(@JsonProperty("prompt_tokens") long promptTokens,
+                        @JsonProperty("completion_tokens") long completionTokens,
+                        @JsonProperty("total_tokens") long totalTokens) {
+    }
+}
@@ -0,0 +1,322 @@
+package com.finsight.ai.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Guards every call to the AI agent with a deadline, jittered exponential backoff,
+ * a circuit breaker and a concurrency bulkhead.
+ *
+ * While the breaker is open, or the bulkhead is full, callers get their rule-based fallback
+ * immediately instead of paying the upstream latency. The breaker state is reported as the
+ * {@code aiAgent} actuator health component and the {@code ai.agent.circuit.state} gauge.
+ */
+@Component("aiAgent")
+public class AiAgentResilience implements HealthIndicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(AiAgentResilience.class);
+
+    public enum CircuitState { CLOSED, HALF_OPEN, OPEN }
+
+    // Total time budget for one logical call, retries included
+    @Value("${app.ai.resilience.deadline-ms:8000}")
+    private long deadlineMs;
+
+    @Value("${app.ai.resilience.attempt-timeout-ms:5000}")
+    private long attemptTimeoutMs;
+
+    @Value("${app.ai.resilience.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.ai.resilience.backoff-base-ms:200}")
+    private long backoffBaseMs;
+
+    @Value("${app.ai.resilience.backoff-max-ms:2000}")
+    private long backoffMaxMs;
+
+    @Value("${app.ai.resilience.bulkhead-wait-ms:100}")
+    private long bulkheadWaitMs;
+
+    private final Semaphore bulkhead;
+    private final int bulkheadSize;
+    private final CircuitBreaker breaker;
+    private final MeterRegistry meterRegistry;
+
+    public AiAgentResilience(MeterRegistry meterRegistry,
+                             @Value("${app.ai.resilience.bulkhead-size:16}") int bulkheadSize,
+                             @Value("${app.ai.resilience.breaker.window:20}") int window,
+                             @Value("${app.ai.resilience.breaker.min-calls:10}") int minCalls,
+                             @Value("${app.ai.resilience.breaker.failure-rate:50}") int failureRatePercent,
+                             @Value("${app.ai.resilience.breaker.open-ms:30000}") long openMs) {
+        this.meterRegistry = meterRegistry;
+        this.bulkheadSize = Math.max(1, bulkheadSize);
+        this.bulkhead = new Semaphore(this.bulkheadSize);
+        this.breaker = new CircuitBreaker(window, minCalls, failureRatePercent, openMs);
+        meterRegistry.gauge("ai.agent.circuit.state", breaker, b -> b.getState().ordinal());
+        meterRegistry.gauge("ai.agent.bulkhead.available", bulkhead, Semaphore::availablePermits);
+    }
+
+    /**
+     * Runs {@code attempt} with the time left for that attempt, retrying failures and empty (null)
+     * results. Returns {@code fallback} when the breaker is open, the bulkhead is full or the
+     * deadline runs out.
+     */
+    public <T> T call(String operation, Function<Duration, T> attempt, Supplier<T> fallback) {
+        if (!breaker.tryAcquire()) {
+            count(operation, "short_circuited");
+            return fallback.get();
+        }
+
+        boolean acquired;
+        try {
+            acquired = bulkhead.tryAcquire(bulkheadWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            breaker.release();
+            count(operation, "rejected");
+            return fallback.get();
+        }
+
+        try {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+            for (int attemptNo = 1; ; attemptNo++) {
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0) {
+                    break;
+                }
+
+                boolean retryable = true;
+                try {
+                    T result = attempt.apply(Duration.ofMillis(Math.min(attemptTimeoutMs, remainingMs)));
+                    if (result != null) {
+                        breaker.record(true);
+                        count(operation, "success");
+                        return result;
+                    }
+                    logger.info("AI agent {} returned no content on attempt {}/{}", operation, attemptNo, maxAttempts);
+                } catch (RuntimeException e) {
+                    retryable = isRetryable(e);
+                    logger.warn("AI agent {} attempt {}/{} failed: {}", operation, attemptNo, maxAttempts, e.getMessage());
+                }
+
+                if (!retryable || attemptNo >= maxAttempts || !sleepBeforeRetry(attemptNo, deadline)) {
+                    break;
+                }
+            }
+
+            breaker.record(false);
+            count(operation, "failure");
+            return fallback.get();
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Streaming variant: breaker and bulkhead apply as for {@link #call}, and the attempt timeout
+     * bounds the wait for each chunk. A stream cannot be retried once tokens went out, so failures
+     * switch to {@code fallback} only if nothing has been emitted yet.
+     */
+    public <T> Flux<T> stream(String operation, Supplier<Flux<T>> upstream, Supplier<Flux<T>> fallback) {
+        return Flux.defer(() -> {
+            if (!breaker.tryAcquire()) {
+                count(operation, "short_circuited");
+                return fallback.get();
+            }
+            if (!bulkhead.tryAcquire()) {
+                breaker.release();
+                count(operation, "rejected");
+                return fallback.get();
+            }
+
+            AtomicBoolean emitted = new AtomicBoolean();
+            return upstream.get()
+                .timeout(Duration.ofMillis(attemptTimeoutMs))
+                .doOnNext(item -> emitted.set(true))
+                .doOnComplete(() -> {
+                    breaker.record(true);
+                    count(operation, "success");
+                })
+                .onErrorResume(e -> {
+                    logger.warn("AI agent {} stream failed: {}", operation, e.getMessage());
+                    breaker.record(false);
+                    count(operation, "failure");
+                    return emitted.get() ? Flux.error(e) : fallback.get();
+                })
+                .doFinally(signal -> {
+                    if (signal == SignalType.CANCEL) {
+                        // Client went away; the outcome says nothing about the agent's health
+                        breaker.release();
+                        count(operation, "cancelled");
+                    }
+                    bulkhead.release();
+                });
+        });
+    }
+
+    public CircuitState getCircuitState() {
+        return breaker.getState();
+    }
+
+    @Override
+    public Health health() {
+        CircuitState state = breaker.getState();
+        Health.Builder health = state == CircuitState.OPEN ? Health.status(new Status("CIRCUIT_OPEN")) : Health.up();
+        return health
+            .withDetail("circuitState", state)
+            .withDetail("failureRatePercent", breaker.getFailureRate())
+            .withDetail("bulkheadAvailable", bulkhead.availablePermits())
+            .withDetail("bulkheadSize", bulkheadSize)
+            .build();
+    }
+
+    // Client errors other than throttling will not improve on retry
+    private boolean isRetryable(RuntimeException e) {
+        if (e instanceof WebClientResponseException response) {
+            int status = response.getStatusCode().value();
+            return status == 429 || status >= 500;
+        }
+        return true;
+    }
+
+    // Full jitter: sleep a random time up to base * 2^(attempt-1), capped and kept inside the deadline
+    private boolean sleepBeforeRetry(int attemptNo, long deadline) {
+        long ceiling = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attemptNo - 1, 16));
+        long sleepMs = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sleepMs) >= deadline) {
+            return false;
+        }
+        try {
+            Thread.sleep(sleepMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void count(String operation, String outcome) {
+        meterRegistry.counter("ai.agent.calls", "operation", operation, "outcome", outcome).increment();
+    }
+
+    /**
+     * Count-based breaker over the last {@code window} calls. Opens when the failure rate reaches the
+     * threshold, lets a single trial call through after {@code openMs}, and closes again on its success.
+     */
+    private static final class CircuitBreaker {
+        private final boolean[] outcomes;
+        private final int minCalls;
+        private final int failureRatePercent;
+        private final long openNanos;
+
+        private int next;
+        private int recorded;
+        private int failures;
+        private CircuitState state = CircuitState.CLOSED;
+        private long openedAt;
+        private boolean trialInFlight;
+
+        private CircuitBreaker(int window, int minCalls, int failureRatePercent, long openMs) {
+            this.outcomes = new boolean[Math.max(1, window)];
+            this.minCalls = Math.max(1, Math.min(minCalls, outcomes.length));
+            this.failureRatePercent = failureRatePercent;
+            this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+        }
+
+        synchronized boolean tryAcquire() {
+            if (state == CircuitState.OPEN && System.nanoTime() - openedAt >= openNanos) {
+                state = CircuitState.HALF_OPEN;
+                trialInFlight = false;
+            }
+            if (state == CircuitState.OPEN) {
+                return false;
+            }
+            if (state == CircuitState.HALF_OPEN) {
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+            }
+            return true;
+        }
+
+        // Gives back a trial slot that was acquired but never used
+        synchronized void release() {
+            trialInFlight = false;
+        }
+
+        synchronized void record(boolean success) {
+            if (state == CircuitState.OPEN) {
+                // A call that started before the breaker opened
+                return;
+            }
+            if (state == CircuitState.HALF_OPEN) {
+                trialInFlight = false;
+                if (success) {
+                    reset();
+                    state = CircuitState.CLOSED;
+                } else {
+                    open();
+                }
+                return;
+            }
+
+            if (recorded == outcomes.length) {
+                if (!outcomes[next]) {
+                    failures--;
+                }
+            } else {
+                recorded++;
+            }
+            outcomes[next] = success;
+            if (!success) {
+                failures++;
+            }
+            next = (next + 1) % outcomes.length;
+
+            if (recorded >= minCalls && failures * 100 >= failureRatePercent * recorded) {
+                open();
+            }
+        }
+
+        synchronized CircuitState getState() {
+            return state;
+        }
+
+        synchronized int getFailureRate() {
+            return recorded == 0 ? 0 : failures * 100 / recorded;
+        }
+
+        private void open() {
+            state = CircuitState.OPEN;
+            openedAt = System.nanoTime();
+            reset();
+        }
+
+        private void reset() {
+            next = 0;
+            recorded = 0;
+            failures = 0;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.finsight.ai.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Decides which waiting AI agent call goes upstream next, by priority class.
+ *
+ * At most {@code max-in-flight} calls run at once, and batch calls never hold more than
+ * {@code batch-max-in-flight} of those slots, so a chat turn always finds room while a batch job
+ * runs. When a slot frees up, the classes share it by weighted fair queuing (stride scheduling on
+ * the class weights). A class whose oldest call has waited past {@code promote-after-ms} goes
+ * first regardless, so low-priority work is delayed but not starved. A call that cannot get a slot
+ * within {@code max-wait-ms} gets its fallback.
+ *
+ * Deep call paths (tip generation) pick up their class from {@link #runAs}; callers that know
+ * their class pass it directly.
+ */
+@Component
+public class AiCallDispatcher {
+
+    public enum Priority {
+        INTERACTIVE(8), PAGE_LOAD(4), BATCH(1);
+
+        private final int weight;
+
+        Priority(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private static final ThreadLocal<Priority> CURRENT = new ThreadLocal<>();
+
+    private final int maxInFlight;
+    private final int batchMaxInFlight;
+    private final long promoteAfterNanos;
+    private final long maxWaitMs;
+
+    // Guarded by this
+    private final Map<Priority, ArrayDeque<Waiter>> queues = new EnumMap<>(Priority.class);
+    private final Map<Priority, Integer> running = new EnumMap<>(Priority.class);
+    private final Map<Priority, Double> pass = new EnumMap<>(Priority.class);
+    private double virtualTime;
+    private int inFlight;
+
+    private final Map<Priority, Timer> waits = new EnumMap<>(Priority.class);
+    private final Map<Priority, Counter> timeouts = new EnumMap<>(Priority.class);
+    private final Counter promotions;
+
+    public AiCallDispatcher(MeterRegistry meterRegistry,
+                            @Value("${app.ai.dispatch.max-in-flight:12}") int maxInFlight,
+                            @Value("${app.ai.dispatch.batch-max-in-flight:2}") int batchMaxInFlight,
+                            @Value("${app.ai.dispatch.promote-after-ms:3000}") long promoteAfterMs,
+                            @Value("${app.ai.dispatch.max-wait-ms:10000}") long maxWaitMs) {
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.batchMaxInFlight = Math.max(1, Math.min(batchMaxInFlight, this.maxInFlight));
+        this.promoteAfterNanos = TimeUnit.MILLISECONDS.toNanos(promoteAfterMs);
+        this.maxWaitMs = maxWaitMs;
+        for (Priority priority : Priority.values()) {
+            String tag = priority.name().toLowerCase();
+            queues.put(priority, new ArrayDeque<>());
+            running.put(priority, 0);
+            pass.put(priority, 0.0);
+            waits.put(priority, Timer.builder("ai.dispatch.wait")
+                .tag("priority", tag)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry));
+            timeouts.put(priority, meterRegistry.counter("ai.dispatch.timeouts", "priority", tag));
+            meterRegistry.gauge("ai.dispatch.queued", Tags.of("priority", tag), this, dispatcher -> dispatcher.queued(priority));
+            meterRegistry.gauge("ai.dispatch.in_flight", Tags.of("priority", tag), this, dispatcher -> dispatcher.running(priority));
+        }
+        this.promotions = meterRegistry.counter("ai.dispatch.promotions");
+    }
+
+    // Runs work with its AI calls classed as priority, unless they pass a class of their own
+    public <T> T runAs(Priority priority, Supplier<T> work) {
+        Priority previous = CURRENT.get();
+        CURRENT.set(priority);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    // The class set by runAs on this thread; page-load work by default
+    public Priority currentPriority() {
+        Priority priority = CURRENT.get();
+        return priority != null ? priority : Priority.PAGE_LOAD;
+    }
+
+    // Waits for a slot, then runs call; fallback if no slot frees up in time
+    public <T> T call(Priority priority, Supplier<T> call, Supplier<T> fallback) {
+        Waiter waiter = enqueue(priority);
+        try {
+            waiter.granted.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timeouts.get(priority).increment();
+            cancel(waiter);
+            return fallback.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel(waiter);
+            return fallback.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("AI call dispatch failed", e.getCause());
+        }
+        try {
+            return call.get();
+        } finally {
+            cancel(waiter);
+        }
+    }
+
+    /**
+     * Streaming variant: the upstream is subscribed once a slot is granted and holds the slot until
+     * it terminates or is cancelled.
+     */
+    public <T> Flux<T> stream(Priority priority, Supplier<Flux<T>> upstream, Supplier<Flux<T>> fallback) {
+        return Flux.defer(() -> {
+            Waiter waiter = enqueue(priority);
+            Mono<Boolean> admitted = Mono.fromFuture(waiter.granted, true)
+                .timeout(Duration.ofMillis(maxWaitMs))
+                .thenReturn(true)
+                .onErrorResume(TimeoutException.class, e -> {
+                    timeouts.get(priority).increment();
+                    cancel(waiter);
+                    return Mono.just(false);
+                });
+            return admitted
+                .flatMapMany(granted -> granted ? upstream.get() : fallback.get())
+                .doFinally(signal -> cancel(waiter));
+        });
+    }
+
+    private Waiter enqueue(Priority priority) {
+        Waiter waiter = new Waiter(priority);
+        synchronized (this) {
+            ArrayDeque<Waiter> queue = queues.get(priority);
+            if (queue.isEmpty()) {
+                // A class coming back from idle competes from now on, with no credit for the idle time
+                pass.put(priority, Math.max(pass.get(priority), virtualTime));
+            }
+            queue.addLast(waiter);
+        }
+        dispatch();
+        return waiter;
+    }
+
+    // Gives up a waiting call, or frees the slot of a granted one; safe to call more than once
+    private void cancel(Waiter waiter) {
+        synchronized (this) {
+            if (waiter.done) {
+                return;
+            }
+            waiter.done = true;
+            if (!waiter.isGranted) {
+                queues.get(waiter.priority).remove(waiter);
+                return;
+            }
+            inFlight--;
+            running.merge(waiter.priority, -1, Integer::sum);
+        }
+        dispatch();
+    }
+
+    private void dispatch() {
+        List<Waiter> granted = new ArrayList<>();
+        synchronized (this) {
+            long now = System.nanoTime();
+            while (inFlight < maxInFlight) {
+                Priority next = pick(now);
+                if (next == null) {
+                    break;
+                }
+                Waiter waiter = queues.get(next).removeFirst();
+                waiter.isGranted = true;
+                inFlight++;
+                running.merge(next, 1, Integer::sum);
+                virtualTime = pass.get(next);
+                pass.put(next, virtualTime + 1.0 / next.weight);
+                granted.add(waiter);
+            }
+        }
+        // Completed outside the lock: a granted stream subscribes upstream on this thread
+        for (Waiter waiter : granted) {
+            waits.get(waiter.priority).record(System.nanoTime() - waiter.enqueuedAt, TimeUnit.NANOSECONDS);
+            waiter.granted.complete(null);
+        }
+    }
+
+    // Oldest overdue class first, otherwise the eligible class with the lowest pass; null if none
+    private Priority pick(long now) {
+        Priority fairest = null;
+        Priority overdue = null;
+        for (Priority priority : Priority.values()) {
+            ArrayDeque<Waiter> queue = queues.get(priority);
+            if (queue.isEmpty() || (priority == Priority.BATCH && running.get(priority) >= batchMaxInFlight)) {
+                continue;
+            }
+            if (fairest == null || pass.get(priority) < pass.get(fairest)) {
+                fairest = priority;
+            }
+            long waited = now - queue.peekFirst().enqueuedAt;
+            if (waited >= promoteAfterNanos
+                    && (overdue == null || queue.peekFirst().enqueuedAt < queues.get(overdue).peekFirst().enqueuedAt)) {
+                overdue = priority;
+            }
+        }
+        if (overdue != null && overdue != fairest) {
+            promotions.increment();
+            return overdue;
+        }
+        return fairest;
+    }
+
+    private synchronized int queued(Priority priority) {
+        return queues.get(priority).size();
+    }
+
+    private synchronized int running(Priority priority) {
+        return running.get(priority);
+    }
+
+    private static final class Waiter {
+        private final Priority priority;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<Void> granted = new CompletableFuture<>();
+        // Guarded by the dispatcher
+        private boolean isGranted;
+        private boolean done;
+
+        private Waiter(Priority priority) {
+            this.priority = priority;
+        }
+    }
+}
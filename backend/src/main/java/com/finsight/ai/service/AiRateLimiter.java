@@ -0,0 +1,126 @@
+package com.finsight.ai.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admission control for the AI endpoints: a token bucket per user plus a global cap on requests
+ * working on AI output at once.
+ *
+ * A request spends as many tokens as the agent calls it may make. Nothing waits: when the user's
+ * bucket is empty or every slot is taken, {@link #tryAcquire} returns null and the caller answers
+ * from cache or the rule-based tips. Buckets refill continuously; a full one carries no state and
+ * is swept.
+ */
+@Component
+public class AiRateLimiter {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final Semaphore slots;
+    private final Map<Long, Bucket> buckets = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public AiRateLimiter(MeterRegistry meterRegistry,
+                         @Value("${app.ai.rate-limit.burst:6}") int burst,
+                         @Value("${app.ai.rate-limit.per-minute:6}") int perMinute,
+                         @Value("${app.ai.rate-limit.max-concurrent:32}") int maxConcurrent) {
+        this.meterRegistry = meterRegistry;
+        this.capacity = Math.max(1, burst);
+        this.tokensPerNano = perMinute / 60e9;
+        int slotCount = Math.max(1, maxConcurrent);
+        this.slots = new Semaphore(slotCount);
+        meterRegistry.gauge("ai.rate_limit.in_flight", slots, s -> slotCount - s.availablePermits());
+        meterRegistry.gauge("ai.rate_limit.tracked_users", buckets, Map::size);
+    }
+
+    /**
+     * Takes {@code cost} tokens from the user's bucket and one global slot. Returns the permit to
+     * close when the request is done, or null when the request is over either limit.
+     */
+    public Permit tryAcquire(Long userId, String endpoint, int cost) {
+        // Taken under the map's lock for this user, so the sweep can't drop the bucket in between
+        boolean[] taken = new boolean[1];
+        Bucket bucket = buckets.compute(userId, (id, existing) -> {
+            Bucket current = existing != null ? existing : new Bucket();
+            taken[0] = current.tryTake(cost);
+            return current;
+        });
+        if (!taken[0]) {
+            decisions(endpoint, "user_limited").increment();
+            return null;
+        }
+        if (!slots.tryAcquire()) {
+            // Not the user's fault, so the tokens go back
+            bucket.refund(cost);
+            decisions(endpoint, "global_limited").increment();
+            return null;
+        }
+        decisions(endpoint, "allowed").increment();
+        return new Permit();
+    }
+
+    @Scheduled(fixedDelayString = "${app.ai.rate-limit.sweep-ms:300000}")
+    public void sweepFullBuckets() {
+        // The fullness check and the removal happen together, under the same lock tryAcquire takes
+        for (Long userId : buckets.keySet()) {
+            buckets.computeIfPresent(userId, (id, bucket) -> bucket.isFull() ? null : bucket);
+        }
+    }
+
+    private Counter decisions(String endpoint, String result) {
+        return meterRegistry.counter("ai.rate_limit.requests", "endpoint", endpoint, "result", result);
+    }
+
+    /** One admitted request's global slot; closing it more than once is harmless. */
+    public final class Permit implements AutoCloseable {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit() {
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                slots.release();
+            }
+        }
+    }
+
+    private final class Bucket {
+        private double tokens = capacity;
+        private long refilledAt = System.nanoTime();
+
+        synchronized boolean tryTake(int cost) {
+            refill();
+            if (tokens < cost) {
+                return false;
+            }
+            tokens -= cost;
+            return true;
+        }
+
+        synchronized void refund(int cost) {
+            tokens = Math.min(capacity, tokens + cost);
+        }
+
+        synchronized boolean isFull() {
+            refill();
+            return tokens >= capacity;
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+        }
+    }
+}
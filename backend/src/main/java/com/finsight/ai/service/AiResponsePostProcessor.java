@@ -0,0 +1,250 @@
+package com.finsight.ai.service;
+
+import com.finsight.ai.entity.ExpenseCategory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Text clean-up for AI agent responses, compiled once.
+ *
+ * Each pipeline keeps the exact order and regexes of the replaceAll chains it replaced, so output
+ * is unchanged. Most responses contain none of the characters the regex steps react to (mojibake,
+ * markdown asterisks, escaped or typographic punctuation); those skip the regex table entirely and
+ * go through a single character scan that maps punctuation, drops control characters and collapses
+ * whitespace.
+ */
+final class AiResponsePostProcessor {
+
+    // Mojibake, markdown emphasis and escaped punctuation, in the order the tip chains applied them
+    private static final List<Step> TIP_CLEANUP = List.of(
+        new Step("ΓÇ[£¥ô]", "\""),
+        new Step("ΓÇ[æ–—]", "-"),
+        new Step("ΓÇ[»¿•]", ""),
+        new Step("ΓÇÖ", "'"),
+        new Step("ΓÇô", "-"),
+        new Step("ΓëêΓÇ»", "~"),
+        new Step("ΓÇæ", "-"),
+        new Step("ΓÇ»", ""),
+        new Step("\\*\\*[^*]*\\*\\*", ""),
+        new Step("\\*[^*]*\\*", ""),
+        new Step("\\*+", ""),
+        new Step("\\\\u201[CD]", "\""),
+        new Step("\\\\u201[89]", "'"),
+        new Step("\\\\u201[3-4]", "-"),
+        new Step("\\u00A0", " "),
+        new Step("≡ƒ[\\w]*", ""),
+        new Step("Γ[\\w]*", ""));
+
+    // Every step above needs one of these characters to match anything
+    private static final String TIP_CLEANUP_TRIGGERS = "Γ*\\\u00A0≡";
+
+    private static final List<Step> SIMPLE_MOJIBAKE = List.of(
+        new Step("ΓÇÖ", "'"),
+        new Step("ΓÇ£", "\""),
+        new Step("ΓÇ¥", "\""),
+        new Step("ΓÇô", "-"),
+        new Step("ΓÇæ", "-"),
+        new Step("ΓÇ»", ""),
+        new Step("ΓÇ¿", ""));
+
+    private static final List<Step> QUOTE_MOJIBAKE = List.of(
+        new Step("ΓÇ£", "\""),
+        new Step("ΓÇô", "\""),
+        new Step("Γǣ", ""));
+
+    private static final List<Step> LIST_PREFIXES = List.of(
+        new Step("^\\d+\\.\\s*", ""),
+        new Step("^-\\s*", ""),
+        new Step("^Tip\\s*\\d*:?\\s*", ""),
+        new Step("^TIP\\s*\\d*:?\\s*", ""));
+
+    private static final List<Step> TIP_PREFIXES = List.of(
+        new Step("(?i)^\\*\\*[^*]+\\*\\*:?\\s*", ""),
+        new Step("(?i)^(actionable tip|financial tip|tip|here is|here's|recommendation):?\\s*", ""),
+        new Step("(?i)(hope this helps|let me know).*$", ""),
+        new Step("^[\"'`]|[\"'`]$", ""),
+        new Step("^:+\\s*", ""));
+
+    private static final List<Step> CONTEXTUAL_PREFIXES = List.of(
+        new Step("(?i)^(based on your|looking at your|according to your).*?(data|expenses|spending)[,:]?\\s*", ""),
+        new Step("(?i)^(here's what i found|here's my analysis|my response):?\\s*", ""),
+        new Step("(?i)^(analyzing your|reviewing your).*?[,:]\\s*", ""),
+        new Step("(?i)(hope this helps|let me know|feel free to ask).*$", ""),
+        new Step("^[\"'`]|[\"'`]$", ""));
+
+    // How the prefixes the first three contextual steps strip begin
+    private static final Pattern CONTEXTUAL_LEAD_IN = Pattern.compile(
+        "(?i)(based on your|looking at your|according to your|here's what i found|here's my analysis|my response|analyzing your|reviewing your)");
+
+    private static final List<Step> MAIN_TIP_PREFIXES = List.of(
+        new Step("(?i)^(here is|here's|i recommend|i suggest|my tip is|tip:|recommendation:)\\s*", ""),
+        new Step("(?i)(hope this helps|let me know if|feel free to|good luck).*$", ""));
+
+    private static final Pattern CATEGORY_NAMES = Pattern.compile("\\b(" + Arrays.stream(ExpenseCategory.values())
+        .map(ExpenseCategory::name)
+        .collect(Collectors.joining("|")) + ")\\b");
+
+    private static final Map<String, Pattern> CURRENCY_CODES = new ConcurrentHashMap<>();
+
+    // Emoji and other symbols, as the "add an emoji unless there is one" checks test for them
+    private static final Pattern STARTS_WITH_SYMBOL = Pattern.compile("^[\\p{So}\\p{Cn}].*");
+    private static final Pattern CONTAINS_SYMBOL = Pattern.compile(".*[\\p{So}\\p{Cn}].*");
+
+    private AiResponsePostProcessor() {
+    }
+
+    // processSingleAITip and processContextualAIResponse, first stage
+    static String cleanTipResponse(String response) {
+        String cleaned = containsAny(response, TIP_CLEANUP_TRIGGERS) ? apply(TIP_CLEANUP, response) : response;
+        return scan(cleaned, false, false, true).trim();
+    }
+
+    // parseAIResponseSimple: mojibake, then control characters other than \r \n \t, then whitespace
+    static String cleanSimpleResponse(String response) {
+        String cleaned = response.indexOf('Γ') >= 0 ? apply(SIMPLE_MOJIBAKE, response) : response;
+        return scan(cleaned, false, true, true).trim();
+    }
+
+    // parseEnhancedTips: typographic quotes and unusual spaces, then whitespace
+    static String cleanQuotesAndSpaces(String response) {
+        String cleaned = response.indexOf('Γ') >= 0 ? apply(QUOTE_MOJIBAKE, response) : response;
+        return scan(cleaned, true, false, true).trim();
+    }
+
+    // cleanAndFormatTip: as cleanQuotesAndSpaces, with list prefixes removed before whitespace collapses
+    static String cleanListTip(String tip) {
+        String cleaned = tip.trim();
+        cleaned = cleaned.indexOf('Γ') >= 0 ? apply(QUOTE_MOJIBAKE, cleaned) : cleaned;
+        cleaned = scan(cleaned, true, false, false);
+        // Number, dash and "Tip" prefixes; this chain never had the upper-case TIP step
+        cleaned = apply(LIST_PREFIXES.subList(0, 3), cleaned);
+        return scan(cleaned, false, false, true).trim();
+    }
+
+    static String stripListPrefixes(String tip) {
+        return apply(LIST_PREFIXES, tip).trim();
+    }
+
+    static String stripTipPrefixes(String tip) {
+        return apply(TIP_PREFIXES, tip).trim();
+    }
+
+    static String stripContextualPrefixes(String response) {
+        return apply(CONTEXTUAL_PREFIXES, response).trim();
+    }
+
+    /**
+     * True while a lead-in that stripContextualPrefixes removes may still grow as more of a streamed
+     * response arrives: the response starts with one but the prefix match doesn't yet end before
+     * the text does.
+     */
+    static boolean contextualPrefixPending(String response) {
+        if (!CONTEXTUAL_LEAD_IN.matcher(response).lookingAt()) {
+            return false;
+        }
+        for (Step step : CONTEXTUAL_PREFIXES.subList(0, 3)) {
+            Matcher lead = step.pattern.matcher(response);
+            if (lead.find()) {
+                return lead.end() >= response.length();
+            }
+        }
+        return true;
+    }
+
+    static String stripMainTipPrefixes(String response) {
+        return apply(MAIN_TIP_PREFIXES, response).trim();
+    }
+
+    // Enum category names become display names, then the currency code becomes its symbol
+    static String formatTipText(String tip, String currency, String currencySymbol) {
+        Matcher categories = CATEGORY_NAMES.matcher(tip);
+        String formatted = categories.find()
+            ? categories.replaceAll(match -> Matcher.quoteReplacement(ExpenseCategory.valueOf(match.group(1)).getDisplayName()))
+            : tip;
+        Pattern code = CURRENCY_CODES.computeIfAbsent(currency, c -> Pattern.compile("\\b" + c + "\\b"));
+        return code.matcher(formatted).replaceAll(Matcher.quoteReplacement(currencySymbol));
+    }
+
+    static boolean startsWithSymbol(String text) {
+        return STARTS_WITH_SYMBOL.matcher(text).matches();
+    }
+
+    static boolean containsSymbol(String text) {
+        return CONTAINS_SYMBOL.matcher(text).matches();
+    }
+
+    private static String apply(List<Step> steps, String text) {
+        String result = text;
+        for (Step step : steps) {
+            result = step.pattern.matcher(result).replaceAll(step.replacement);
+        }
+        return result;
+    }
+
+    private static boolean containsAny(String text, String characters) {
+        for (int i = 0; i < characters.length(); i++) {
+            if (text.indexOf(characters.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * One pass over the text. mapPunctuation turns typographic quotes into '"' and unusual spaces
+     * into ' '; dropControls removes control characters other than \r, \n and \t; collapse turns
+     * each run of regex \s characters into one space. Dropped characters don't break a run, which
+     * is what removing them before collapsing did.
+     */
+    private static String scan(String text, boolean mapPunctuation, boolean dropControls, boolean collapse) {
+        StringBuilder out = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (mapPunctuation) {
+                if (c == '\u201C' || c == '\u201D' || c == '\u2018' || c == '\u2019') {
+                    c = '"';
+                } else if (c == '\u00A0' || (c >= '\u2000' && c <= '\u200B') || c == '\u2028' || c == '\u2029' || c == '\uFEFF') {
+                    c = ' ';
+                }
+            }
+            if (dropControls && (c < ' ' || c == '\u007F') && c != '\r' && c != '\n' && c != '\t') {
+                continue;
+            }
+            if (collapse && isRegexWhitespace(c)) {
+                pendingSpace = true;
+                continue;
+            }
+            if (pendingSpace) {
+                out.append(' ');
+                pendingSpace = false;
+            }
+            out.append(c);
+        }
+        if (pendingSpace) {
+            out.append(' ');
+        }
+        return out.toString();
+    }
+
+    // java.util.regex \s without UNICODE_CHARACTER_CLASS
+    private static boolean isRegexWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static final class Step {
+        private final Pattern pattern;
+        private final String replacement;
+
+        private Step(String regex, String replacement) {
+            this.pattern = Pattern.compile(regex);
+            this.replacement = replacement;
+        }
+    }
+}
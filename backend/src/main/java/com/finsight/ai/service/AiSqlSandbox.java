@@ -0,0 +1,355 @@
+package com.finsight.ai.service;
+
+import com.finsight.ai.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs SQL written by the AI agent against the current user's data only.
+ *
+ * The statement is tokenized and checked against a small read-only grammar: one SELECT, tables
+ * limited to expenses and budgets, functions limited to an allow-list, no comments, quoted
+ * identifiers or statement separators. Anything the checker cannot account for is rejected with
+ * an {@link IllegalArgumentException}. Accepted queries are wrapped so that {@code expenses} and
+ * {@code budgets} resolve to CTEs filtered by the caller's user id, then executed in a read-only
+ * transaction with a statement timeout, a row cap and a streaming fetch size.
+ */
+@Component
+public class AiSqlSandbox {
+
+    private static final Logger logger = LoggerFactory.getLogger(AiSqlSandbox.class);
+
+    private static final Set<String> TABLES = Set.of("expenses", "budgets");
+
+    private static final Set<String> FUNCTIONS = Set.of(
+        "sum", "count", "avg", "min", "max", "coalesce", "nullif", "round", "abs", "floor", "ceil",
+        "lower", "upper", "trim", "length", "concat", "date_trunc", "date_part", "extract", "cast",
+        "to_char", "to_date", "date", "now", "age", "greatest", "least");
+
+    // Words that may open a parenthesised group without being a function call
+    private static final Set<String> GROUPING_KEYWORDS = Set.of(
+        "select", "from", "join", "where", "and", "or", "not", "in", "exists", "any", "all", "on",
+        "as", "when", "then", "else", "by", "having", "union", "except", "intersect", "filter", "over",
+        "between", "distinct", "using");
+
+    // TABLE x and VALUES are query forms of their own, so they could name a table without a FROM
+    private static final Set<String> FORBIDDEN = Set.of(
+        "insert", "update", "delete", "merge", "upsert", "drop", "alter", "create", "truncate", "grant",
+        "revoke", "copy", "into", "lock", "for", "call", "do", "execute", "prepare", "set", "reset",
+        "show", "vacuum", "analyze", "listen", "notify", "with", "recursive", "lateral", "only",
+        "returning", "tablesample", "table", "values");
+
+    // Keywords that end a FROM list; ON and USING don't, since another comma-joined table may follow them
+    private static final Set<String> CLAUSE_KEYWORDS = Set.of(
+        "where", "group", "order", "having", "limit", "offset", "union", "except", "intersect", "window",
+        "fetch");
+
+    private static final Pattern TOKEN = Pattern.compile(
+        "\\s+"
+            + "|(?<comment>--|/\\*)"
+            + "|(?<word>[A-Za-z_][A-Za-z0-9_]*)"
+            + "|(?<number>\\d+(?:\\.\\d+)?)"
+            + "|(?<string>'(?:[^']|'')*')"
+            + "|(?<symbol><=|>=|<>|!=|::|\\|\\||[(),.*=<>+\\-/%])");
+
+    // Calendar dates and bare years: only safe to cache when they came from the question itself
+    private static final Pattern TIME_BOUND_LITERAL = Pattern.compile("\\d{4}-\\d{2}(-\\d{2})?.*|(19|20)\\d{2}");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int maxRows;
+    private final Counter rejected;
+
+    public AiSqlSandbox(DataSource dataSource,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.ai-sql.max-rows:200}") int maxRows,
+                        @Value("${app.ai-sql.timeout-seconds:5}") int timeoutSeconds,
+                        @Value("${app.ai-sql.fetch-size:50}") int fetchSize) {
+        this.maxRows = Math.max(1, maxRows);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setQueryTimeout(timeoutSeconds);
+        // One extra row tells a full page apart from a truncated one
+        this.jdbcTemplate.setMaxRows(this.maxRows + 1);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setTimeout(timeoutSeconds + 1);
+        this.rejected = meterRegistry.counter("ai.sql.rejected");
+    }
+
+    /**
+     * Validates and runs one AI-generated SELECT for the given user, handing rows to rowHandler as
+     * they are fetched.
+     *
+     * @throws IllegalArgumentException if the statement is not in the accepted grammar
+     */
+    public QueryResult stream(String sql, User user, Consumer<Map<String, Object>> rowHandler) {
+        return run(validateOrReject(sql, user), List.of(), user, rowHandler);
+    }
+
+    /**
+     * Runs a template produced by {@link #template} with this question's slot values bound to its
+     * parameters. Templates are only built from validated SQL, so no parsing happens here.
+     */
+    public QueryResult stream(SqlTemplate template, List<Object> slotValues, User user, Consumer<Map<String, Object>> rowHandler) {
+        List<Object> parameters = new ArrayList<>(template.parameterSlots.length);
+        for (int slot : template.parameterSlots) {
+            parameters.add(slotValues.get(slot));
+        }
+        return run(template.sql, parameters, user, rowHandler);
+    }
+
+    /**
+     * Validates sql and turns it into a reusable template: every literal equal to one of
+     * slotLiterals (compared case-insensitively) becomes a bind parameter for that slot.
+     * Returns null when a slot has no matching literal, or when a date or year literal that is not
+     * a slot would pin the answer to the day the SQL was written.
+     *
+     * @throws IllegalArgumentException if the statement is not in the accepted grammar
+     */
+    public SqlTemplate template(String sql, List<String> slotLiterals, User user) {
+        String statement = validateOrReject(sql, user);
+        StringBuilder templated = new StringBuilder();
+        List<Integer> parameterSlots = new ArrayList<>();
+        boolean[] slotUsed = new boolean[slotLiterals.size()];
+        int copied = 0;
+
+        Matcher matcher = TOKEN.matcher(statement);
+        while (matcher.find()) {
+            String literal = matcher.group("string") != null
+                ? matcher.group("string").substring(1, matcher.group("string").length() - 1).replace("''", "'")
+                : matcher.group("number");
+            if (literal == null) {
+                continue;
+            }
+            int slot = indexOfIgnoreCase(slotLiterals, literal);
+            if (slot < 0) {
+                if (TIME_BOUND_LITERAL.matcher(literal).matches()) {
+                    return null;
+                }
+                continue;
+            }
+            templated.append(statement, copied, matcher.start()).append('?');
+            copied = matcher.end();
+            parameterSlots.add(slot);
+            slotUsed[slot] = true;
+        }
+        for (boolean used : slotUsed) {
+            if (!used) {
+                return null;
+            }
+        }
+        templated.append(statement, copied, statement.length());
+        return new SqlTemplate(templated.toString(), parameterSlots.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    private static int indexOfIgnoreCase(List<String> values, String candidate) {
+        for (int i = 0; i < values.size(); i++) {
+            if (values.get(i).equalsIgnoreCase(candidate)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private String validateOrReject(String sql, User user) {
+        try {
+            return validate(sql);
+        } catch (IllegalArgumentException e) {
+            rejected.increment();
+            logger.warn("Rejected AI-generated SQL for user {}: {}", user.getId(), e.getMessage());
+            throw e;
+        }
+    }
+
+    private QueryResult run(String statement, List<Object> parameters, User user, Consumer<Map<String, Object>> rowHandler) {
+        // User id binds the two scoping CTEs, which come before the statement's own parameters
+        List<Object> arguments = new ArrayList<>(parameters.size() + 2);
+        arguments.add(user.getId());
+        arguments.add(user.getId());
+        arguments.addAll(parameters);
+
+        String scoped = scopeToUser(statement);
+        ColumnMapRowMapper rowMapper = new ColumnMapRowMapper();
+        int[] rows = new int[1];
+        boolean[] truncated = new boolean[1];
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(scoped, rs -> {
+            if (rows[0] >= maxRows) {
+                truncated[0] = true;
+                return;
+            }
+            rowHandler.accept(rowMapper.mapRow(rs, rows[0]++));
+        }, arguments.toArray()));
+        return new QueryResult(rows[0], truncated[0]);
+    }
+
+    // Returns the statement without its trailing semicolon once every token has been accounted for
+    String validate(String sql) {
+        if (sql == null || sql.isBlank()) {
+            throw new IllegalArgumentException("empty statement");
+        }
+        String statement = sql.strip();
+        if (statement.endsWith(";")) {
+            statement = statement.substring(0, statement.length() - 1).stripTrailing();
+        }
+
+        List<String> tokens = tokenize(statement);
+        if (tokens.isEmpty() || !tokens.get(0).equals("select")) {
+            throw new IllegalArgumentException("only SELECT statements are allowed");
+        }
+
+        // One frame per open parenthesis, plus the statement itself at the bottom
+        Deque<Frame> frames = new ArrayDeque<>();
+        frames.push(new Frame(false));
+        boolean expectTable = false;
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            String next = i + 1 < tokens.size() ? tokens.get(i + 1) : "";
+            Frame frame = frames.peek();
+
+            if (token.equals("(")) {
+                String previous = i > 0 ? tokens.get(i - 1) : "";
+                Frame opened = new Frame(FUNCTIONS.contains(previous));
+                if (expectTable && !next.equals("select")) {
+                    // A parenthesised join where a table was due: its first table is checked like any other
+                    opened.fromList = true;
+                } else {
+                    // A derived table after FROM gets its own frame; its FROM clauses are checked as the scan reaches them
+                    expectTable = false;
+                }
+                frames.push(opened);
+                continue;
+            }
+            if (token.equals(")")) {
+                if (frames.size() == 1 || expectTable) {
+                    throw new IllegalArgumentException("malformed statement");
+                }
+                frames.pop();
+                continue;
+            }
+            if (token.equals(",") && frame.fromList) {
+                expectTable = true;
+                continue;
+            }
+            if (!isWord(token)) {
+                if (expectTable) {
+                    throw new IllegalArgumentException("table expected before '" + token + "'");
+                }
+                continue;
+            }
+
+            if (FORBIDDEN.contains(token)) {
+                throw new IllegalArgumentException("keyword not allowed: " + token);
+            }
+            if (next.equals("(") && !FUNCTIONS.contains(token) && !GROUPING_KEYWORDS.contains(token)) {
+                throw new IllegalArgumentException("function not allowed: " + token);
+            }
+            if (frame.function) {
+                // FROM inside EXTRACT(... FROM ...) is part of the call, not a table clause
+                continue;
+            }
+
+            if (expectTable) {
+                if (!TABLES.contains(token) || next.equals(".")) {
+                    throw new IllegalArgumentException("table not allowed: " + token);
+                }
+                expectTable = false;
+            } else if (token.equals("from") || token.equals("join")) {
+                expectTable = true;
+                frame.fromList = true;
+            } else if (CLAUSE_KEYWORDS.contains(token)) {
+                frame.fromList = false;
+            }
+        }
+        if (frames.size() != 1) {
+            throw new IllegalArgumentException("unbalanced parentheses");
+        }
+        if (expectTable) {
+            throw new IllegalArgumentException("missing table name");
+        }
+        return statement;
+    }
+
+    // Lower-cases words; string literals and numbers are kept verbatim
+    private List<String> tokenize(String statement) {
+        List<String> tokens = new ArrayList<>();
+        Matcher matcher = TOKEN.matcher(statement);
+        int position = 0;
+        while (position < statement.length()) {
+            matcher.region(position, statement.length());
+            if (!matcher.lookingAt()) {
+                throw new IllegalArgumentException("unexpected character '" + statement.charAt(position) + "'");
+            }
+            if (matcher.group("comment") != null) {
+                throw new IllegalArgumentException("comments are not allowed");
+            }
+            if (matcher.group("word") != null) {
+                tokens.add(matcher.group("word").toLowerCase(Locale.ROOT));
+            } else if (matcher.group("number") != null || matcher.group("string") != null || matcher.group("symbol") != null) {
+                tokens.add(matcher.group());
+            }
+            position = matcher.end();
+        }
+        return tokens;
+    }
+
+    private static boolean isWord(String token) {
+        char first = token.charAt(0);
+        return Character.isLetter(first) || first == '_';
+    }
+
+    // Shadows both tables with user-filtered CTEs; the validated query can't name anything else
+    private String scopeToUser(String statement) {
+        return "WITH expenses AS (SELECT * FROM expenses WHERE user_id = ?), "
+            + "budgets AS (SELECT * FROM budgets WHERE user_id = ?) "
+            + "SELECT * FROM (" + statement + ") AS sandboxed LIMIT " + (maxRows + 1);
+    }
+
+    private static final class Frame {
+        private final boolean function;
+        private boolean fromList;
+
+        private Frame(boolean function) {
+            this.function = function;
+        }
+    }
+
+    /** Validated SQL with bind markers, plus the question slot feeding each marker in order. */
+    public static final class SqlTemplate {
+        private final String sql;
+        private final int[] parameterSlots;
+
+        private SqlTemplate(String sql, int[] parameterSlots) {
+            this.sql = sql;
+            this.parameterSlots = parameterSlots;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+    }
+
+    public record QueryResult(int rowCount, boolean truncated) {
+    }
+}
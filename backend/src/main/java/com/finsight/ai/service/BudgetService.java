@@ -3,11 +3,13 @@ package com.finsight.ai.service;
 import com.finsight.ai.dto.BudgetDto;
 import com.finsight.ai.entity.Budget;
 import com.finsight.ai.entity.ExpenseCategory;
+import com.finsight.ai.entity.OutboxEventType;
 import com.finsight.ai.entity.User;
 import com.finsight.ai.repository.BudgetRepository;
 import com.finsight.ai.repository.ExpenseRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -23,6 +25,10 @@ public class BudgetService {
     @Autowired
     private ExpenseRepository expenseRepository;
 
+    @Autowired
+    private OutboxService outboxService;
+
+    @Transactional
     public Budget createBudget(BudgetDto budgetDto, User user) {
         // Check if budget already exists for this category, month, and year
         Optional<Budget> existingBudget = budgetRepository.findByUserAndCategoryAndMonthAndYear(
@@ -43,7 +49,9 @@ public class BudgetService {
         // Calculate current spent amount
         updateBudgetSpent(budget);
 
-        return budgetRepository.save(budget);
+        Budget savedBudget = budgetRepository.save(budget);
+        outboxService.recordBudgetEvent(OutboxEventType.BUDGET_CREATED, savedBudget);
+        return savedBudget;
     }
 
     public List<Budget> getUserBudgets(User user) {
@@ -54,6 +62,7 @@ public class BudgetService {
         return budgetRepository.findByUserAndMonthAndYearOrderByCategory(user, month, year);
     }
 
+    @Transactional
     public Budget updateBudget(Long budgetId, BudgetDto budgetDto, User user) {
         Budget budget = budgetRepository.findById(budgetId)
             .orElseThrow(() -> new RuntimeException("Budget not found"));
@@ -70,9 +79,12 @@ public class BudgetService {
         // Recalculate current spent amount
         updateBudgetSpent(budget);
 
-        return budgetRepository.save(budget);
+        Budget savedBudget = budgetRepository.save(budget);
+        outboxService.recordBudgetEvent(OutboxEventType.BUDGET_UPDATED, savedBudget);
+        return savedBudget;
     }
 
+    @Transactional
     public void deleteBudget(Long budgetId, User user) {
         Budget budget = budgetRepository.findById(budgetId)
             .orElseThrow(() -> new RuntimeException("Budget not found"));
@@ -81,6 +93,7 @@ public class BudgetService {
             throw new RuntimeException("Unauthorized to delete this budget");
         }
 
+        outboxService.recordBudgetEvent(OutboxEventType.BUDGET_DELETED, budget);
         budgetRepository.delete(budget);
     }
 
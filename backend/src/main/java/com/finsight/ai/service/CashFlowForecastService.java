@@ -0,0 +1,260 @@
+package com.finsight.ai.service;
+
+import com.finsight.ai.dto.CashFlowForecastDto;
+import com.finsight.ai.dto.CashFlowForecastDto.PeriodForecast;
+import com.finsight.ai.entity.ExpenseCategory;
+import com.finsight.ai.entity.User;
+import com.finsight.ai.event.FinancialDataChangedEvent;
+import com.finsight.ai.repository.ExpenseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-user, per-category cash-flow forecasts from daily expense rollups.
+ *
+ * Each category keeps a {@link SeasonalForecastModel} that is fitted once and then advanced one
+ * day at a time as days close. Expense changes arrive through {@link FinancialDataChangedEvent};
+ * a change to an already fitted day rewinds the models to the last weekly checkpoint before it and
+ * replays only the days after that, falling back to a full refit for changes older than the
+ * checkpoints. Forecasts are cached per horizon until the models move. Users are kept in a bounded
+ * LRU; an evicted user is refitted from the rollups on their next forecast.
+ */
+@Service
+public class CashFlowForecastService {
+
+    private static final double DAYS_PER_MONTH = 365.25 / 12;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Value("${app.forecast.history-days:365}")
+    private int historyDays;
+
+    @Value("${app.forecast.max-horizon-days:365}")
+    private int maxHorizonDays;
+
+    @Value("${app.forecast.checkpoints:8}")
+    private int checkpointCount;
+
+    @Value("${app.forecast.alpha:0.3}")
+    private double alpha;
+
+    @Value("${app.forecast.beta:0.05}")
+    private double beta;
+
+    @Value("${app.forecast.gamma:0.2}")
+    private double gamma;
+
+    @Value("${app.forecast.phi:0.98}")
+    private double phi;
+
+    private final Map<Long, UserModels> users;
+
+    public CashFlowForecastService(@Value("${app.forecast.max-users:1000}") int maxUsers) {
+        this.users = Collections.synchronizedMap(new LinkedHashMap<Long, UserModels>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, UserModels> eldest) {
+                return size() > maxUsers;
+            }
+        });
+    }
+
+    public CashFlowForecastDto forecast(User user, int horizonDays) {
+        if (horizonDays < 1 || horizonDays > maxHorizonDays) {
+            throw new RuntimeException("Forecast horizon must be between 1 and " + maxHorizonDays + " days");
+        }
+
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        UserModels state = users.computeIfAbsent(user.getId(), id -> new UserModels());
+        synchronized (state) {
+            refresh(state, user, yesterday);
+            return state.forecasts.computeIfAbsent(horizonDays, days -> project(state, days));
+        }
+    }
+
+    @EventListener
+    public void onFinancialDataChanged(FinancialDataChangedEvent event) {
+        if (!event.getType().isExpenseEvent()) {
+            return;
+        }
+        UserModels state = users.get(event.getUserId());
+        LocalDate affected = event.getEarliestAffectedDate();
+        if (state == null || affected == null) {
+            return;
+        }
+        synchronized (state) {
+            // Today is not fitted yet, so only changes to closed days invalidate anything
+            if (state.fittedThrough != null && !affected.isAfter(state.fittedThrough)) {
+                state.dirtyFrom = state.dirtyFrom == null || affected.isBefore(state.dirtyFrom) ? affected : state.dirtyFrom;
+                state.forecasts.clear();
+            }
+        }
+    }
+
+    private void refresh(UserModels state, User user, LocalDate yesterday) {
+        if (state.fittedThrough == null || (state.dirtyFrom != null && !rewind(state))) {
+            state.reset();
+            LocalDate from = yesterday.minusDays(historyDays - 1L);
+            replay(state, from, yesterday, expenseRepository.getDailyCategoryTotalsBetweenDates(user, from, yesterday));
+        } else if (state.fittedThrough.isBefore(yesterday)) {
+            LocalDate from = state.fittedThrough.plusDays(1);
+            replay(state, from, yesterday, expenseRepository.getDailyCategoryTotalsBetweenDates(user, from, yesterday));
+        }
+    }
+
+    // Restores the newest checkpoint before the first dirty day; false when the change predates all checkpoints
+    private boolean rewind(UserModels state) {
+        Map.Entry<LocalDate, Checkpoint> checkpoint = state.checkpoints.lowerEntry(state.dirtyFrom);
+        state.dirtyFrom = null;
+        if (checkpoint == null) {
+            return false;
+        }
+
+        state.models.clear();
+        checkpoint.getValue().models.forEach((category, model) -> state.models.put(category, model.copy()));
+        state.observedDays = checkpoint.getValue().observedDays;
+        state.fittedThrough = checkpoint.getKey();
+        state.checkpoints.tailMap(checkpoint.getKey(), false).clear();
+        return true;
+    }
+
+    private void replay(UserModels state, LocalDate from, LocalDate to, List<Object[]> rows) {
+        Map<LocalDate, Map<ExpenseCategory, Double>> byDay = new HashMap<>();
+        for (Object[] row : rows) {
+            byDay.computeIfAbsent((LocalDate) row[0], d -> new EnumMap<>(ExpenseCategory.class))
+                .put((ExpenseCategory) row[1], ((BigDecimal) row[2]).doubleValue());
+        }
+
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            Map<ExpenseCategory, Double> amounts = byDay.getOrDefault(day, Map.of());
+            // Models start on the user's first day with spending, not at the edge of the history window
+            if (state.observedDays > 0 || !amounts.isEmpty()) {
+                for (ExpenseCategory category : amounts.keySet()) {
+                    state.models.computeIfAbsent(category, c -> new SeasonalForecastModel(alpha, beta, gamma, phi));
+                }
+                for (Map.Entry<ExpenseCategory, SeasonalForecastModel> model : state.models.entrySet()) {
+                    model.getValue().update(day, amounts.getOrDefault(model.getKey(), 0.0));
+                }
+                state.observedDays++;
+                if (state.observedDays % 7 == 0) {
+                    state.checkpoint(day, checkpointCount);
+                }
+            }
+        }
+        state.fittedThrough = to;
+        state.forecasts.clear();
+    }
+
+    private CashFlowForecastDto project(UserModels state, int horizonDays) {
+        LocalDate start = state.fittedThrough.plusDays(1);
+        LocalDate end = start.plusDays(horizonDays - 1L);
+
+        Map<ExpenseCategory, Double> categoryTotals = new EnumMap<>(ExpenseCategory.class);
+        Map<YearMonth, Map<ExpenseCategory, Double>> monthTotals = new LinkedHashMap<>();
+        for (int step = 1; step <= horizonDays; step++) {
+            LocalDate day = state.fittedThrough.plusDays(step);
+            Map<ExpenseCategory, Double> month = monthTotals.computeIfAbsent(YearMonth.from(day),
+                m -> new EnumMap<>(ExpenseCategory.class));
+            for (Map.Entry<ExpenseCategory, SeasonalForecastModel> model : state.models.entrySet()) {
+                double amount = model.getValue().forecast(day, step);
+                categoryTotals.merge(model.getKey(), amount, Double::sum);
+                month.merge(model.getKey(), amount, Double::sum);
+            }
+        }
+
+        List<PeriodForecast> months = new ArrayList<>();
+        for (Map.Entry<YearMonth, Map<ExpenseCategory, Double>> month : monthTotals.entrySet()) {
+            YearMonth yearMonth = month.getKey();
+            LocalDate periodStart = yearMonth.atDay(1).isBefore(start) ? start : yearMonth.atDay(1);
+            LocalDate periodEnd = yearMonth.atEndOfMonth().isAfter(end) ? end : yearMonth.atEndOfMonth();
+            String label = yearMonth.getMonth().getDisplayName(TextStyle.FULL, Locale.ENGLISH) + " " + yearMonth.getYear();
+            months.add(new PeriodForecast(label, periodStart, periodEnd, sum(month.getValue()), money(month.getValue())));
+        }
+
+        double level = 0;
+        double trend = 0;
+        for (SeasonalForecastModel model : state.models.values()) {
+            level += model.getLevel();
+            trend += model.getTrend();
+        }
+
+        return new CashFlowForecastDto(start, end, state.observedDays, trendLabel(level, trend),
+            money(level * DAYS_PER_MONTH), sum(categoryTotals), money(categoryTotals), months);
+    }
+
+    // Same thresholds the mobile client used: +5% / -3% month over month
+    private String trendLabel(double level, double trend) {
+        if (level <= 0) {
+            return "stable";
+        }
+        double monthlyChange = trend * DAYS_PER_MONTH / level;
+        if (monthlyChange > 0.05) {
+            return "increasing";
+        }
+        if (monthlyChange < -0.03) {
+            return "decreasing";
+        }
+        return "stable";
+    }
+
+    private BigDecimal sum(Map<ExpenseCategory, Double> amounts) {
+        return money(amounts.values().stream().mapToDouble(Double::doubleValue).sum());
+    }
+
+    private Map<ExpenseCategory, BigDecimal> money(Map<ExpenseCategory, Double> amounts) {
+        Map<ExpenseCategory, BigDecimal> result = new EnumMap<>(ExpenseCategory.class);
+        amounts.forEach((category, amount) -> result.put(category, money(amount)));
+        return result;
+    }
+
+    private BigDecimal money(double amount) {
+        return BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static final class UserModels {
+        private final Map<ExpenseCategory, SeasonalForecastModel> models = new EnumMap<>(ExpenseCategory.class);
+        private final TreeMap<LocalDate, Checkpoint> checkpoints = new TreeMap<>();
+        private final Map<Integer, CashFlowForecastDto> forecasts = new HashMap<>();
+        private LocalDate fittedThrough;
+        private LocalDate dirtyFrom;
+        private int observedDays;
+
+        private void checkpoint(LocalDate day, int keep) {
+            Map<ExpenseCategory, SeasonalForecastModel> snapshot = new EnumMap<>(ExpenseCategory.class);
+            models.forEach((category, model) -> snapshot.put(category, model.copy()));
+            checkpoints.put(day, new Checkpoint(snapshot, observedDays));
+            while (checkpoints.size() > keep) {
+                checkpoints.pollFirstEntry();
+            }
+        }
+
+        private void reset() {
+            models.clear();
+            checkpoints.clear();
+            forecasts.clear();
+            fittedThrough = null;
+            dirtyFrom = null;
+            observedDays = 0;
+        }
+    }
+
+    private record Checkpoint(Map<ExpenseCategory, SeasonalForecastModel> models, int observedDays) {
+    }
+}
@@ -4,40 +4,55 @@ package com.finsight.ai.service;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.DayOfWeek;
+import java.time.Duration;
 import java.time.LocalDate;
-import java.time.Month;
 import java.time.format.DateTimeFormatter;
 import java.time.format.TextStyle;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 import com.finsight.ai.entity.ExpenseCategory;
 import com.finsight.ai.entity.User;
 import com.finsight.ai.repository.BudgetRepository;
 import com.finsight.ai.repository.ExpenseRepository;
-import com.finsight.ai.repository.UserRepository;
 
-import reactor.core.publisher.Mono;
+import reactor.core.publisher.Flux;
 
 @Service
 public class ChatbotService {
     @Autowired
-    private org.springframework.jdbc.core.JdbcTemplate jdbcTemplate;
+    private AiSqlSandbox sqlSandbox;
+    @Autowired
+    private SqlTemplateCache sqlTemplates;
+
+    private static final Pattern SQL_BLOCK = Pattern.compile("SELECT[\\s\\S]+?;", Pattern.CASE_INSENSITIVE);
+
+    // Schema line of the chat and SQL prompts; static, so built once
+    private static final String SCHEMA_CONTEXT = "Schema: EXPENSES(id, user_id, amount, category, description, date, receipt_url), " +
+        "BUDGETS(id, user_id, category, monthly_limit, current_spent, month, year), " +
+        "CATEGORIES: " + String.join(", ", Arrays.stream(ExpenseCategory.values()).map(ExpenseCategory::getDisplayName).toList());
+
     /**
      * Handles AI-generated SQL queries for custom user requests.
      * @param userMessage The user's natural language question.
@@ -45,50 +60,45 @@ public class ChatbotService {
      * @return The formatted result or AI explanation.
      */
     public String handleAIQuery(String userMessage, User user) {
-        // Provide schema context for the AI agent
-    String schemaContext = "Schema: EXPENSES(id, user_id, amount, category, description, date, receipt_url), " +
-        "BUDGETS(id, user_id, category, monthly_limit, current_spent, month, year), " +
-        "CATEGORIES: " + String.join(", ",
-            java.util.Arrays.stream(ExpenseCategory.values()).map(ExpenseCategory::getDisplayName).toList());
+        // Same question shape answered before: run its template with this question's values, no agent call
+        SqlTemplateCache.Question question = sqlTemplates.normalize(userMessage, LocalDate.now());
+        SqlTemplateCache.CachedTemplate cached = sqlTemplates.lookup(question);
+        if (cached != null) {
+            return formatQueryResult(cached.template().getSql(), templateExplanation(question), user,
+                rowHandler -> sqlSandbox.stream(cached.template(), question.slotValues(), user, rowHandler));
+        }
 
-        // Build prompt for AI agent
+        // Build prompt for AI agent; resolved entity values let its SQL be reused as a template
         String prompt = String.format("User question: '%s'\n%s\nGenerate a SQL query to answer this question using the schema above. Return the SQL and a brief explanation.",
-                userMessage, schemaContext);
+                userMessage, SCHEMA_CONTEXT);
+        if (!question.slots().isEmpty()) {
+            prompt += "\nUse these exact literal values in the SQL: " + question.describeSlots() + ".";
+        }
 
-        // Call AI agent to get SQL and explanation
-        String aiResponse = aiTipsService.generateContextualResponse(user, prompt);
+        // Only a miss reaches the agent, so only a miss counts against the user's AI quota
+        AiRateLimiter.Permit permit = rateLimiter.tryAcquire(user.getId(), "query", 1);
+        if (permit == null) {
+            return limitedReply(user);
+        }
+        String sqlPrompt = prompt;
+        String aiResponse;
+        try (permit) {
+            // Raw agent text: the chat clean-up would strip the asterisks and rewrite the category literals in the SQL
+            aiResponse = dispatcher.call(AiCallDispatcher.Priority.INTERACTIVE,
+                () -> aiAgentResilience.call("chatbot-sql",
+                    timeout -> aiAgentClient.complete("chatbot-sql", sqlPrompt, 600, 0.2, timeout), () -> null),
+                () -> null);
+        }
+        if (aiResponse == null) {
+            return "AI could not generate a SQL query right now. Please try again in a moment.";
+        }
 
         // Extract SQL from AI response (simple pattern match)
-        Pattern sqlPattern = Pattern.compile("SELECT[\\s\\S]+?;", Pattern.CASE_INSENSITIVE);
-        Matcher matcher = sqlPattern.matcher(aiResponse);
+        Matcher matcher = SQL_BLOCK.matcher(aiResponse);
         String sql = matcher.find() ? matcher.group() : null;
 
         if (sql != null) {
-            // Validate SQL (basic check: only SELECT allowed)
-            if (!sql.trim().toUpperCase().startsWith("SELECT")) {
-                return "AI-generated query is not allowed. Only SELECT statements are permitted.";
-            }
-            try {
-                // Execute SQL safely using JdbcTemplate
-                List<Map<String, Object>> results = jdbcTemplate.queryForList(sql);
-                StringBuilder formatted = new StringBuilder();
-                formatted.append("AI-generated SQL: ").append(sql).append("\n");
-                formatted.append("Explanation: ").append(aiResponse.replace(sql, "").trim()).append("\n");
-                if (results.isEmpty()) {
-                    formatted.append("No results found for your query.");
-                } else {
-                    formatted.append("Results:\n");
-                    for (Map<String, Object> row : results) {
-                        for (Map.Entry<String, Object> entry : row.entrySet()) {
-                            formatted.append(entry.getKey()).append(": ").append(entry.getValue()).append("; ");
-                        }
-                        formatted.append("\n");
-                    }
-                }
-                return formatted.toString();
-            } catch (Exception e) {
-                return "Error executing AI-generated query: " + e.getMessage();
-            }
+            return runGeneratedQuery(sql, aiResponse, user, question);
         } else {
             // If no SQL found, return AI explanation
             return "AI could not generate a valid SQL query.\n" + aiResponse;
@@ -102,98 +112,279 @@ public class ChatbotService {
     @Autowired
     private BudgetRepository budgetRepository;
     @Autowired
-    private UserRepository userRepository;
-    @Autowired
     private CurrencyService currencyService;
     @Autowired
     private AITipsService aiTipsService;
+    @Autowired
+    private AiAgentResilience aiAgentResilience;
+    @Autowired
+    private AiAgentClient aiAgentClient;
+    @Autowired
+    private InFlightCoalescer coalescer;
+    @Autowired
+    private FinancialContextFactory financialContexts;
+    @Autowired
+    private ConversationStore conversations;
+    @Autowired
+    private AiRateLimiter rateLimiter;
+    @Autowired
+    private AiCallDispatcher dispatcher;
+
+    // chatbot.reply{path=local|llm|limited}: the count split is the share served locally, percentiles the latency per path
+    private final Timer localReplies;
+    private final Timer llmReplies;
+    private final Timer limitedReplies;
+    // Time to the first streamed token of an agent reply, the latency the user actually waits through
+    private final Timer firstToken;
+
+    public ChatbotService(MeterRegistry meterRegistry) {
+        this.localReplies = replyTimer(meterRegistry, "local");
+        this.llmReplies = replyTimer(meterRegistry, "llm");
+        this.limitedReplies = replyTimer(meterRegistry, "limited");
+        this.firstToken = Timer.builder("chatbot.reply.first_token")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        Gauge.builder("chatbot.reply.local.share", this, ChatbotService::localShare)
+            .description("Fraction of chatbot replies answered without the AI agent")
+            .register(meterRegistry);
+    }
 
-    @Value("${gradient.ai.agent.api.url:}")
-    private String aiAgentApiUrl;
-
-    @Value("${gradient.ai.agent.api.key:}")
-    private String aiAgentApiKey;
-
-    private final WebClient webClient;
+    private static Timer replyTimer(MeterRegistry meterRegistry, String path) {
+        return Timer.builder("chatbot.reply")
+            .tag("path", path)
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+    }
 
-    public ChatbotService() {
-        this.webClient = WebClient.builder().build();
+    private double localShare() {
+        long total = localReplies.count() + llmReplies.count();
+        return total == 0 ? 0.0 : (double) localReplies.count() / total;
     }
 
-    public String getChatbotReply(String userMessage, String userId, String currency) {
+    public String getChatbotReply(String userMessage, User user, String currency) {
         try {
-            Optional<User> userOpt = userRepository.findByFirebaseUid(userId);
-            if (!userOpt.isPresent()) {
-                return "I couldn't find your account information. Please try logging in again.";
+            Timer.Sample sample = Timer.start();
+            String localReply = answerLocally(userMessage, user, currency);
+            if (localReply != null) {
+                sample.stop(localReplies);
+                return localReply;
             }
 
-            User user = userOpt.get();
+            AiRateLimiter.Permit permit = rateLimiter.tryAcquire(user.getId(), "chat", 1);
+            if (permit == null) {
+                String reply = limitedReply(user);
+                sample.stop(limitedReplies);
+                return reply;
+            }
+            try (permit) {
+                String reply = getAgentReply(userMessage, user, currency);
+                sample.stop(llmReplies);
+                return reply;
+            }
+        } catch (Exception e) {
+            logger.error("Error processing chatbot request for user: {}", user.getFirebaseUid(), e);
+            return "I'm experiencing technical difficulties. Please try again in a moment.";
+        }
+    }
 
-            // Build full context for AI agent
-            String schemaContext = "Schema: EXPENSES(id, user_id, amount, category, description, date, receipt_url), " +
-                    "BUDGETS(id, user_id, category, monthly_limit, current_spent, month, year), " +
-                    "CATEGORIES: " + String.join(", ",
-                        java.util.Arrays.stream(ExpenseCategory.values()).map(ExpenseCategory::getDisplayName).toList());
+    private String getAgentReply(String userMessage, User user, String currency) {
+        // One context for both prompt layers, so the month's category totals are queried once.
+        // Its queries run concurrently while the agent connection is warmed up.
+        aiAgentClient.preconnect();
+        FinancialContext context = financialContexts.prefetched(user);
+        ConversationStore.Conversation conversation = conversations.open(user.getId());
+        String prompt = chatPrompt(userMessage, currency, context, conversation);
 
-            // Add user financial context
-            LocalDate now = LocalDate.now();
-            LocalDate monthStart = now.withDayOfMonth(1);
-            List<Object[]> categoryData = expenseRepository.getExpensesByCategoryBetweenDates(user, monthStart, now);
-            StringBuilder breakdown = new StringBuilder();
-            breakdown.append("Category breakdown this month:\n");
-            for (Object[] data : categoryData) {
-                ExpenseCategory cat = (ExpenseCategory) data[0];
-                BigDecimal amount = (BigDecimal) data[1];
-                breakdown.append(String.format("- %s: %s\n", cat.getDisplayName(), currencyService.formatAmount(amount.doubleValue(), currency)));
-            }
+        // Call AI agent for every query
+        String aiResponse = aiTipsService.generateContextualResponse(user, prompt, context, conversation);
+        logger.debug("Chatbot reply for user {} ran {} context queries", user.getId(), context.queryCount());
+        if (!aiTipsService.isContextualFallback(aiResponse)) {
+            conversation.record(userMessage, aiResponse);
+        }
+
+        // Try to extract and execute SQL if present
+        Matcher matcher = SQL_BLOCK.matcher(aiResponse);
+        if (matcher.find()) {
+            return runGeneratedQuery(matcher.group(), aiResponse, user, null);
+        }
+        // Otherwise, return AI response
+        return aiResponse;
+    }
+
+    // Runs agent-written SQL through the sandbox, which scopes it to this user and caps its cost.
+    // With a question, SQL that ran cleanly is offered to the template cache for repeat questions.
+    private String runGeneratedQuery(String sql, String aiResponse, User user, SqlTemplateCache.Question question) {
+        String explanation = aiResponse.replace(sql, "").trim();
+        boolean[] ran = new boolean[1];
+        String reply = formatQueryResult(sql, explanation, user, rowHandler -> {
+            AiSqlSandbox.QueryResult result = sqlSandbox.stream(sql, user, rowHandler);
+            ran[0] = true;
+            return result;
+        });
+        if (question != null && ran[0]) {
+            sqlTemplates.learn(question, sql, user);
+        }
+        return reply;
+    }
+
+    // Built from this question alone; the explanation that came with the cached SQL described another user's data
+    private String templateExplanation(SqlTemplateCache.Question question) {
+        String values = question.slots().stream()
+            .map(SqlTemplateCache.Slot::mention)
+            .collect(Collectors.joining(", "));
+        return "Answered with the saved query for this kind of question"
+            + (values.isEmpty() ? "" : ", for " + values) + ".";
+    }
 
-            // Compose prompt for AI agent
-            String prompt = String.format(
-                "User question: '%s'\n%s\n%s\nPlease answer the user's question using the schema and financial data above. Do NOT include SQL code or technical details in your answer. Only provide clear, concise, and user-friendly responses (1-2 sentences). If you need to provide a tip or advice, keep it under 30 words.",
-                userMessage, schemaContext, breakdown);
-
-            // Call AI agent for every query
-            String aiResponse = aiTipsService.generateContextualResponse(user, prompt);
-
-            // Try to extract and execute SQL if present
-                Pattern sqlPattern = Pattern.compile("SELECT[\\s\\S]+?;", Pattern.CASE_INSENSITIVE);
-                Matcher matcher = sqlPattern.matcher(aiResponse);
-                String sql = matcher.find() ? matcher.group() : null;
-            if (sql != null && sql.trim().toUpperCase().startsWith("SELECT")) {
-                try {
-                    List<Map<String, Object>> results = jdbcTemplate.queryForList(sql);
-                    StringBuilder formatted = new StringBuilder();
-                    formatted.append("AI-generated SQL: ").append(sql).append("\n");
-                    formatted.append("Explanation: ").append(aiResponse.replace(sql, "").trim()).append("\n");
-                    if (results.isEmpty()) {
-                        formatted.append("No results found for your query.");
-                    } else {
-                        formatted.append("Results:\n");
-                        for (Map<String, Object> row : results) {
-                            for (Map.Entry<String, Object> entry : row.entrySet()) {
-                                formatted.append(entry.getKey()).append(": ").append(entry.getValue()).append("; ");
-                            }
-                            formatted.append("\n");
-                        }
-                    }
-                    return formatted.toString();
-                } catch (Exception e) {
-                    return "Error executing AI-generated query: " + e.getMessage();
+    private String formatQueryResult(String sql, String explanation, User user,
+                                     Function<Consumer<Map<String, Object>>, AiSqlSandbox.QueryResult> query) {
+        StringBuilder rows = new StringBuilder();
+        try {
+            AiSqlSandbox.QueryResult result = query.apply(row -> {
+                for (Map.Entry<String, Object> entry : row.entrySet()) {
+                    rows.append(entry.getKey()).append(": ").append(entry.getValue()).append("; ");
+                }
+                rows.append("\n");
+            });
+
+            StringBuilder formatted = new StringBuilder();
+            formatted.append("AI-generated SQL: ").append(sql).append("\n");
+            formatted.append("Explanation: ").append(explanation).append("\n");
+            if (result.rowCount() == 0) {
+                formatted.append("No results found for your query.");
+            } else {
+                formatted.append("Results:\n").append(rows);
+                if (result.truncated()) {
+                    formatted.append("(showing the first ").append(result.rowCount()).append(" rows)\n");
                 }
             }
-            // Otherwise, return AI response
-            return aiResponse;
+            return formatted.toString();
+        } catch (IllegalArgumentException e) {
+            return "AI-generated query is not allowed: " + e.getMessage();
         } catch (Exception e) {
-            logger.error("Error processing chatbot request for user: {}", userId, e);
-            return "I'm experiencing technical difficulties. Please try again in a moment.";
+            logger.warn("AI-generated query failed for user {}: {}", user.getId(), e.getMessage());
+            return "Error executing AI-generated query. Please try rephrasing your question.";
         }
     }
 
-    // All queries are now handled by the AI agent. No hardcoded logic needed.
+    // Streams the reply token by token; locally answerable questions arrive as a single token
+    public Flux<String> streamChatbotReply(String userMessage, User user, String currency) {
+        Timer.Sample sample = Timer.start();
+        String localReply = answerLocally(userMessage, user, currency);
+        if (localReply != null) {
+            sample.stop(localReplies);
+            return Flux.just(localReply);
+        }
+        AiRateLimiter.Permit permit = rateLimiter.tryAcquire(user.getId(), "chat", 1);
+        if (permit == null) {
+            String limited = limitedReply(user);
+            sample.stop(limitedReplies);
+            return Flux.just(limited);
+        }
+        try {
+            return streamAgentReply(userMessage, user, currency, sample).doFinally(signal -> permit.close());
+        } catch (RuntimeException e) {
+            permit.close();
+            throw e;
+        }
+    }
+
+    private Flux<String> streamAgentReply(String userMessage, User user, String currency, Timer.Sample sample) {
+        aiAgentClient.preconnect();
+        FinancialContext context = financialContexts.prefetched(user);
+        ConversationStore.Conversation conversation = conversations.open(user.getId());
+        String prompt = chatPrompt(userMessage, currency, context, conversation);
+        StringBuilder reply = new StringBuilder();
+        AtomicBoolean first = new AtomicBoolean(true);
+        return aiTipsService.streamContextualResponse(user, prompt, context, conversation)
+            .doOnNext(token -> {
+                if (first.compareAndSet(true, false)) {
+                    sample.stop(firstToken);
+                }
+                reply.append(token);
+            })
+            .doOnComplete(() -> {
+                sample.stop(llmReplies);
+                if (!aiTipsService.isContextualFallback(reply.toString())) {
+                    conversation.record(userMessage, reply.toString());
+                }
+            });
+    }
+
+    // Over the user's AI quota or the global cap: a rule-based tip instead of queuing for the agent
+    private String limitedReply(User user) {
+        return "You're asking faster than I can think right now, give me a minute. Meanwhile, here's a tip: "
+            + aiTipsService.getPersonalizedTipWithoutAgent(user);
+    }
+
+    // Follow-ups send the bare question; the schema and category breakdown went out with the first turn
+    private String chatPrompt(String userMessage, String currency, FinancialContext context,
+                              ConversationStore.Conversation conversation) {
+        return conversation.isEmpty() ? buildChatPrompt(userMessage, currency, context) : userMessage;
+    }
 
-    private String handleSpendingQueries(String msg, User user, String currency, LocalDate now) {
+    /**
+     * Deterministic intent router for factual questions, answered from aggregate queries.
+     * Returns null when the question is subjective or no intent matches, so the AI agent takes it.
+     */
+    private String answerLocally(String userMessage, User user, String currency) {
+        if (userMessage == null || userMessage.isBlank()) {
+            return null;
+        }
+        KeywordMatcher.Matches msg = KEYWORDS.scan(userMessage.toLowerCase(Locale.ROOT).trim());
+        if (isSubjectiveOrContextualQuestion(msg, userMessage)) {
+            return null;
+        }
+
+        LocalDate now = LocalDate.now();
+        if (msg.any("how does", "how do", "how to") && msg.any("receipt", "scan", "budget", "categor")) {
+            return handleFeatureQuestions(msg);
+        }
+        if (msg.any("compare", "comparison", " vs", "versus")) {
+            return handleComparisonQueries(msg, user, currency, now);
+        }
+        if (msg.any("average", "avg")) {
+            return handleAverageQueries(msg, user, currency);
+        }
+        if (msg.any("how many", "number of") && msg.any("transaction", "purchase", "expense")) {
+            return handleTransactionQueries(msg, user, now);
+        }
+        if (msg.any("budget")) {
+            return handleBudgetQueries(msg, user, currency, now);
+        }
+        if (msg.any("overview", "summary", "snapshot")) {
+            return handleFinancialOverview(user, currency, now);
+        }
+        if (msg.any("category", "categories")) {
+            return handleCategoryQueries(msg, user, currency, now);
+        }
+        if (containsDateReferences(msg)) {
+            return handleDateSpecificQueries(msg, user, currency, now);
+        }
+        if (msg.any("spend", "spent", "spending", "how much")) {
+            return handleSpendingQueries(msg, user, currency, now);
+        }
+        return null;
+    }
+
+    private String buildChatPrompt(String userMessage, String currency, FinancialContext context) {
+        // Add user financial context
+        StringBuilder breakdown = new StringBuilder();
+        breakdown.append("Category breakdown this month:\n");
+        context.monthCategorySpending().forEach((cat, amount) ->
+            breakdown.append(String.format("- %s: %s\n", cat.getDisplayName(), currencyService.formatAmount(amount.doubleValue(), currency))));
+
+        // Compose prompt for AI agent
+        return String.format(
+            "User question: '%s'\n%s\n%s\nPlease answer the user's question using the schema and financial data above. Do NOT include SQL code or technical details in your answer. Only provide clear, concise, and user-friendly responses (1-2 sentences). If you need to provide a tip or advice, keep it under 30 words.",
+            userMessage, SCHEMA_CONTEXT, breakdown);
+    }
+
+    // Intent handlers below return null for sub-intents they can't answer, deferring to the AI agent
+
+    private String handleSpendingQueries(KeywordMatcher.Matches msg, User user, String currency, LocalDate now) {
         // Last month
-        if (containsAny(msg, "last month", "previous month")) {
+        if (msg.any("last month", "previous month")) {
             LocalDate lastMonth = now.minusMonths(1);
             LocalDate start = lastMonth.withDayOfMonth(1);
             LocalDate end = lastMonth.withDayOfMonth(lastMonth.lengthOfMonth());
@@ -206,7 +397,7 @@ public class ChatbotService {
         }
         
         // This month
-        if (containsAny(msg, "this month", "current month")) {
+        if (msg.any("this month", "current month")) {
             LocalDate start = now.withDayOfMonth(1);
             LocalDate end = now;
             BigDecimal amount = expenseRepository.getTotalExpensesBetweenDates(user, start, end);
@@ -218,7 +409,7 @@ public class ChatbotService {
         }
         
         // This week
-        if (containsAny(msg, "this week", "current week")) {
+        if (msg.any("this week", "current week")) {
             LocalDate startOfWeek = now.with(DayOfWeek.MONDAY);
             BigDecimal amount = expenseRepository.getTotalExpensesBetweenDates(user, startOfWeek, now);
             if (amount == null) amount = BigDecimal.ZERO;
@@ -227,7 +418,7 @@ public class ChatbotService {
         }
         
         // Today
-        if (containsAny(msg, "today", "today's")) {
+        if (msg.any("today", "today's")) {
             BigDecimal amount = expenseRepository.getTotalExpensesBetweenDates(user, now, now);
             if (amount == null) amount = BigDecimal.ZERO;
             return String.format("You've spent %s today.", 
@@ -235,7 +426,7 @@ public class ChatbotService {
         }
         
         // Yesterday
-        if (containsAny(msg, "yesterday")) {
+        if (msg.any("yesterday")) {
             LocalDate yesterday = now.minusDays(1);
             BigDecimal amount = expenseRepository.getTotalExpensesBetweenDates(user, yesterday, yesterday);
             if (amount == null) amount = BigDecimal.ZERO;
@@ -246,7 +437,7 @@ public class ChatbotService {
         // Specific category spending
         ExpenseCategory category = extractCategory(msg);
         if (category != null) {
-            if (containsAny(msg, "last month")) {
+            if (msg.any("last month")) {
                 LocalDate lastMonth = now.minusMonths(1);
                 LocalDate start = lastMonth.withDayOfMonth(1);
                 LocalDate end = lastMonth.withDayOfMonth(lastMonth.lengthOfMonth());
@@ -265,12 +456,12 @@ public class ChatbotService {
             }
         }
         
-        return "I can tell you how much you've spent today, yesterday, this week, this month, or last month. You can also ask about specific categories.";
+        return null;
     }
 
-    private String handleBudgetQueries(String msg, User user, String currency, LocalDate now) {
+    private String handleBudgetQueries(KeywordMatcher.Matches msg, User user, String currency, LocalDate now) {
         // Budget overview
-        if (containsAny(msg, "all", "total", "overview")) {
+        if (msg.any("all", "total", "overview")) {
             var budgets = budgetRepository.findByUserAndMonthAndYear(user, now.getMonthValue(), now.getYear());
             if (budgets.isEmpty()) {
                 return "You don't have any budgets set for this month.";
@@ -291,7 +482,7 @@ public class ChatbotService {
         }
         
         // Over budget check
-        if (containsAny(msg, "over", "exceeded", "above")) {
+        if (msg.any("over", "exceeded", "above")) {
             var budgets = budgetRepository.findByUserAndMonthAndYear(user, now.getMonthValue(), now.getYear());
             List<String> overBudgetCategories = new ArrayList<>();
             
@@ -328,14 +519,14 @@ public class ChatbotService {
                 currencyService.formatAmount(remaining.doubleValue(), currency));
         }
         
-        return "I can tell you about your budget overview, check if you're over budget, or give details about specific category budgets.";
+        return null;
     }
 
-    private String handleCategoryQueries(String msg, User user, String currency, LocalDate now) {
+    private String handleCategoryQueries(KeywordMatcher.Matches msg, User user, String currency, LocalDate now) {
         LocalDate start, end;
         String period;
         
-        if (containsAny(msg, "last month")) {
+        if (msg.any("last month")) {
             LocalDate lastMonth = now.minusMonths(1);
             start = lastMonth.withDayOfMonth(1);
             end = lastMonth.withDayOfMonth(lastMonth.lengthOfMonth());
@@ -353,7 +544,7 @@ public class ChatbotService {
         }
         
         // Find largest spending category
-        if (containsAny(msg, "largest", "highest", "most", "biggest")) {
+        if (msg.any("largest", "highest", "most", "biggest")) {
             Object[] largest = categoryData.stream()
                 .max(Comparator.comparing(arr -> (BigDecimal) arr[1]))
                 .orElse(null);
@@ -368,7 +559,7 @@ public class ChatbotService {
         }
         
         // Category breakdown
-        if (containsAny(msg, "breakdown", "all", "list")) {
+        if (msg.any("breakdown", "all", "list")) {
             StringBuilder result = new StringBuilder();
             result.append(String.format("Your spending by category %s:\n", period));
             
@@ -385,32 +576,32 @@ public class ChatbotService {
             return result.toString().trim();
         }
         
-        return "I can show you your largest spending category or give you a complete breakdown by category.";
+        return null;
     }
 
-    private String handleTransactionQueries(String msg, User user, LocalDate now) {
+    private String handleTransactionQueries(KeywordMatcher.Matches msg, User user, LocalDate now) {
         LocalDate start, end;
         String period;
         
-        if (containsAny(msg, "today")) {
+        if (msg.any("today")) {
             start = end = now;
             period = "today";
-        } else if (containsAny(msg, "yesterday")) {
+        } else if (msg.any("yesterday")) {
             start = end = now.minusDays(1);
             period = "yesterday";
-        } else if (containsAny(msg, "this week")) {
+        } else if (msg.any("this week")) {
             start = now.with(DayOfWeek.MONDAY);
             end = now;
             period = "this week";
-        } else if (containsAny(msg, "last week")) {
+        } else if (msg.any("last week")) {
             start = now.minusWeeks(1).with(DayOfWeek.MONDAY);
             end = start.plusDays(6);
             period = "last week";
-        } else if (containsAny(msg, "this month")) {
+        } else if (msg.any("this month")) {
             start = now.withDayOfMonth(1);
             end = now;
             period = "this month";
-        } else if (containsAny(msg, "last month")) {
+        } else if (msg.any("last month")) {
             LocalDate lastMonth = now.minusMonths(1);
             start = lastMonth.withDayOfMonth(1);
             end = lastMonth.withDayOfMonth(lastMonth.lengthOfMonth());
@@ -421,8 +612,7 @@ public class ChatbotService {
             period = "this month";
         }
         
-        List<com.finsight.ai.entity.Expense> expenses = expenseRepository.findByUserAndDateBetweenOrderByDateDesc(user, start, end);
-        int count = expenses.size();
+        long count = expenseRepository.countByUserAndDateBetween(user, start, end);
         
         if (count == 0) {
             return String.format("You made no transactions %s.", period);
@@ -433,18 +623,15 @@ public class ChatbotService {
         }
     }
 
-    private String handleAverageQueries(String msg, User user, String currency) {
-        if (containsAny(msg, "daily")) {
-            List<com.finsight.ai.entity.Expense> allExpenses = expenseRepository.findByUserOrderByDateDesc(user);
-            if (allExpenses.isEmpty()) {
+    private String handleAverageQueries(KeywordMatcher.Matches msg, User user, String currency) {
+        if (msg.any("daily", "per day", "a day")) {
+            List<Object[]> firstAndTotal = expenseRepository.getFirstExpenseDateAndTotal(user);
+            if (firstAndTotal.isEmpty() || firstAndTotal.get(0)[0] == null) {
                 return "You don't have any expenses recorded yet.";
             }
             
-            BigDecimal total = allExpenses.stream()
-                .map(com.finsight.ai.entity.Expense::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
-            LocalDate firstExpenseDate = allExpenses.get(allExpenses.size() - 1).getDate();
+            LocalDate firstExpenseDate = (LocalDate) firstAndTotal.get(0)[0];
+            BigDecimal total = (BigDecimal) firstAndTotal.get(0)[1];
             long daysBetween = ChronoUnit.DAYS.between(firstExpenseDate, LocalDate.now()) + 1;
             
             BigDecimal avgDaily = total.divide(BigDecimal.valueOf(daysBetween), 2, RoundingMode.HALF_UP);
@@ -453,28 +640,17 @@ public class ChatbotService {
                 currencyService.formatAmount(avgDaily.doubleValue(), currency));
         }
         
-        if (containsAny(msg, "monthly")) {
-            List<Object[]> dailyData = expenseRepository.getDailyExpensesBetweenDates(user, 
+        if (msg.any("monthly", "per month", "a month")) {
+            // Monthly totals over the last year, one row per month with expenses
+            List<Object[]> monthlyTotals = expenseRepository.getMonthlyTotalsBetweenDates(user, 
                 LocalDate.now().minusMonths(12), LocalDate.now());
             
-            if (dailyData.isEmpty()) {
-                return "You don't have enough expense history to calculate a monthly average.";
-            }
-            
-            // Group by month and calculate monthly totals
-            Map<String, BigDecimal> monthlyTotals = new HashMap<>();
-            for (Object[] data : dailyData) {
-                LocalDate date = (LocalDate) data[0];
-                BigDecimal amount = (BigDecimal) data[1];
-                String monthKey = date.format(DateTimeFormatter.ofPattern("yyyy-MM"));
-                monthlyTotals.merge(monthKey, amount, BigDecimal::add);
-            }
-            
             if (monthlyTotals.isEmpty()) {
                 return "You don't have enough expense history to calculate a monthly average.";
             }
             
-            BigDecimal totalMonthly = monthlyTotals.values().stream()
+            BigDecimal totalMonthly = monthlyTotals.stream()
+                .map(row -> (BigDecimal) row[2])
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
             BigDecimal avgMonthly = totalMonthly.divide(BigDecimal.valueOf(monthlyTotals.size()), 2, RoundingMode.HALF_UP);
             
@@ -482,11 +658,11 @@ public class ChatbotService {
                 currencyService.formatAmount(avgMonthly.doubleValue(), currency), monthlyTotals.size());
         }
         
-        return "I can calculate your average daily or monthly spending. Just ask!";
+        return null;
     }
 
-    private String handleDateSpecificQueries(String msg, User user, String currency, LocalDate now) {
-        LocalDate queryDate = extractSpecificDate(msg, now);
+    private String handleDateSpecificQueries(KeywordMatcher.Matches msg, User user, String currency, LocalDate now) {
+        LocalDate queryDate = extractSpecificDate(msg.text(), now);
         if (queryDate != null) {
             BigDecimal amount = expenseRepository.getTotalExpensesBetweenDates(user, queryDate, queryDate);
             if (amount == null) amount = BigDecimal.ZERO;
@@ -495,11 +671,11 @@ public class ChatbotService {
                 queryDate.format(DateTimeFormatter.ofPattern("MMMM d, yyyy")));
         }
         
-        return "Please specify a date like 'September 8th' or '8th of October'.";
+        return null;
     }
 
-    private String handleComparisonQueries(String msg, User user, String currency, LocalDate now) {
-        if (containsAny(msg, "this month", "last month")) {
+    private String handleComparisonQueries(KeywordMatcher.Matches msg, User user, String currency, LocalDate now) {
+        if (msg.any("this month", "last month")) {
             LocalDate thisMonth = now.withDayOfMonth(1);
             LocalDate lastMonth = now.minusMonths(1);
             LocalDate lastMonthStart = lastMonth.withDayOfMonth(1);
@@ -521,23 +697,23 @@ public class ChatbotService {
                 comparison);
         }
         
-        return "I can compare your spending between this month and last month.";
+        return null;
     }
 
-    private String handleFeatureQuestions(String msg) {
-        if (containsAny(msg, "receipt", "scan")) {
+    private String handleFeatureQuestions(KeywordMatcher.Matches msg) {
+        if (msg.any("receipt", "scan")) {
             return "Receipt scanning uses your phone's camera and OCR technology to automatically extract expense details from your receipts. Just take a photo and the app will fill in the amount, date, and merchant information.";
         }
         
-        if (containsAny(msg, "budget", "work")) {
+        if (msg.any("budget", "work")) {
             return "Budgets help you control your spending by setting monthly limits for different categories. You'll get notifications when you're close to or over your budget limits.";
         }
         
-        if (containsAny(msg, "categories", "organize")) {
+        if (msg.any("categories", "organize")) {
             return "Categories help organize your expenses into groups like Food & Dining, Transportation, Entertainment, etc. This makes it easier to see where your money is going.";
         }
         
-        return "I can explain how budgets, categories, receipt scanning, and other features work. Just ask!";
+        return null;
     }
 
     private String handleFinancialOverview(User user, String currency, LocalDate now) {
@@ -553,7 +729,7 @@ public class ChatbotService {
             .reduce(BigDecimal.ZERO, BigDecimal::add);
         
         // Get transaction count
-        List<com.finsight.ai.entity.Expense> thisMonthExpenses = expenseRepository.findByUserAndDateBetweenOrderByDateDesc(user, monthStart, now);
+        long thisMonthTransactions = expenseRepository.countByUserAndDateBetween(user, monthStart, now);
         
         // Get top category
         List<Object[]> categoryData = expenseRepository.getExpensesByCategoryBetweenDates(user, monthStart, now);
@@ -571,7 +747,7 @@ public class ChatbotService {
         overview.append("Here's your financial overview for ").append(now.getMonth().getDisplayName(TextStyle.FULL, Locale.ENGLISH)).append(":\n");
         overview.append("💰 Total spent: ").append(currencyService.formatAmount(thisMonthSpent.doubleValue(), currency)).append("\n");
         overview.append("🎯 Total budget: ").append(currencyService.formatAmount(totalBudget.doubleValue(), currency)).append("\n");
-        overview.append("📊 Transactions: ").append(thisMonthExpenses.size()).append("\n");
+        overview.append("📊 Transactions: ").append(thisMonthTransactions).append("\n");
         overview.append("🏆 Top category: ").append(topCategory);
         
         return overview.toString();
@@ -579,8 +755,7 @@ public class ChatbotService {
 
     private String getFinancialTip(String userMessage, User user, String currency) {
         // If AI agent is configured, use it for tips
-        if (aiAgentApiUrl != null && !aiAgentApiUrl.isEmpty() && 
-            aiAgentApiKey != null && !aiAgentApiKey.isEmpty()) {
+        if (aiAgentClient.isConfigured()) {
             return getFinancialTipFromAI(user, currency);
         }
 
@@ -659,37 +834,13 @@ public class ChatbotService {
                 currencyService.formatAmount(thisMonthSpent != null ? thisMonthSpent.doubleValue() : 0.0, currency),
                 currencyService.formatAmount(totalBudget.doubleValue(), currency));
             
-            // Make AI API call
-            Map<String, Object> requestBody = new HashMap<>();
-            List<Map<String, String>> messages = new ArrayList<>();
-            Map<String, String> message = new HashMap<>();
-            message.put("role", "user");
-            message.put("content", prompt);
-            messages.add(message);
-            
-            requestBody.put("messages", messages);
-            requestBody.put("max_tokens", 600);
-            requestBody.put("temperature", 0.9);
-            
-            Mono<Map> response = webClient.post()
-                .uri(aiAgentApiUrl + "/api/v1/chat/completions")
-                .header("Authorization", "Bearer " + aiAgentApiKey)
-                .header("Content-Type", "application/json")
-                .bodyValue(requestBody)
-                .retrieve()
-                .bodyToMono(Map.class);
-            
-            Map<String, Object> responseData = response.block();
-            if (responseData != null && responseData.containsKey("choices")) {
-                List<Map<String, Object>> choices = (List<Map<String, Object>>) responseData.get("choices");
-                if (!choices.isEmpty()) {
-                    Map<String, Object> firstChoice = choices.get(0);
-                    Map<String, Object> aiMessage = (Map<String, Object>) firstChoice.get("message");
-                    String tip = (String) aiMessage.get("content");
-                    if (tip != null && !tip.trim().isEmpty()) {
-                        return tip.trim();
-                    }
-                }
+            String tip = coalescer.execute(InFlightCoalescer.promptKey(user.getId(), prompt), () ->
+                dispatcher.call(AiCallDispatcher.Priority.INTERACTIVE,
+                    () -> aiAgentResilience.call("chatbot-tip",
+                        timeout -> aiAgentClient.complete("chatbot-tip", prompt, 600, 0.9, timeout), () -> null),
+                    () -> null));
+            if (tip != null) {
+                return tip;
             }
         } catch (Exception e) {
             logger.error("Error getting AI tip for user: {}", user.getFirebaseUid(), e);
@@ -699,141 +850,118 @@ public class ChatbotService {
     }
 
     // Helper methods
-    private boolean containsAny(String text, String... keywords) {
-        for (String keyword : keywords) {
-            if (text.contains(keyword)) {
-                return true;
-            }
-        }
-        return false;
-    }
 
-    private boolean containsDateReferences(String msg) {
-        return msg.matches(".*\\d{1,2}(st|nd|rd|th)? of (january|february|march|april|may|june|july|august|september|october|november|december).*") ||
-               msg.matches(".*(january|february|march|april|may|june|july|august|september|october|november|december) \\d{1,2}(st|nd|rd|th)?.*") ||
-               msg.matches(".*\\d{1,2}/\\d{1,2}.*") ||
-               msg.matches(".*\\d{4}-\\d{2}-\\d{2}.*");
+    // Every intent and period keyword the router and handlers ask about
+    private static final String[] INTENT_KEYWORDS = {
+        " vs", "a day", "a month", "above", "advice about", "all", "am i", "analyze", "average", "avg",
+        "bad deal", "behavior", "behaviour", "biggest", "breakdown", "budget", "categor", "categories",
+        "category", "compare", "compared to", "comparison", "concerned", "current month", "current week",
+        "daily", "description", "descriptions", "did i spend", "different from", "do you think",
+        "embarrassed", "exceeded", "expense", "explain why", "feel", "feeling", "good deal", "habit",
+        "habits", "had i spent", "happy", "have i spent", "highest", "how do", "how does", "how i",
+        "how many", "how much", "how to", "i bought", "i purchased", "i spent", "insight", "is it okay",
+        "is that", "largest", "last month", "last week", "lifestyle", "like others", "list", "monthly",
+        "most", "normal", "number of", "opinion", "organize", "over", "overview", "pattern", "per day",
+        "per month", "previous month", "proud", "purchase", "receipt", "regret", "sad", "scan",
+        "should i have", "should i", "similar to", "smart", "snapshot", "spend", "spending", "spent",
+        "stupid", "style", "summary", "tell me about", "this month", "this week", "thoughts on", "today",
+        "today's", "too expensive", "too much", "total", "transaction", "trend", "typical", "understand",
+        "unusual", "versus", "was that", "waste", "way i", "what did i buy", "what do you think",
+        "when did i", "where did i", "why did i", "work", "worried", "worth it", "yesterday"
+    };
+
+    // One automaton for the intents plus category and month names, so a message is scanned once
+    private static final KeywordMatcher KEYWORDS = new KeywordMatcher(Stream.of(
+            Arrays.stream(INTENT_KEYWORDS),
+            Arrays.stream(QuestionVocabulary.MONTH_NAMES),
+            QuestionVocabulary.CATEGORY_TERMS.values().stream().flatMap(Arrays::stream))
+        .flatMap(terms -> terms)
+        .toList());
+
+    private static final Pattern NUMERIC_DATE = Pattern.compile("\\d{1,2}/\\d{1,2}|\\d{4}-\\d{2}-\\d{2}");
+    private static final Pattern SPENT_AMOUNT = Pattern.compile("(i\\s+(spent|paid|bought)|cost\\s+me)\\s+[\\w]*\\s*\\d+", Pattern.CASE_INSENSITIVE);
+
+    private boolean containsDateReferences(KeywordMatcher.Matches msg) {
+        // Month tokens and separators come from the scan; the patterns only run to confirm a day next to them
+        String text = msg.text();
+        if (msg.any(QuestionVocabulary.MONTH_NAMES)
+                && (QuestionVocabulary.DAY_OF_MONTH.matcher(text).find() || QuestionVocabulary.MONTH_AND_DAY.matcher(text).find())) {
+            return true;
+        }
+        return (text.indexOf('/') >= 0 || text.indexOf('-') >= 0) && NUMERIC_DATE.matcher(text).find();
     }
 
     private LocalDate extractSpecificDate(String msg, LocalDate now) {
-        // Pattern: "8th of October", "October 8th", etc.
-        Pattern pattern = Pattern.compile("(\\d{1,2})(st|nd|rd|th)? of (january|february|march|april|may|june|july|august|september|october|november|december)");
-        Matcher matcher = pattern.matcher(msg);
-        
+        // Pattern: "8th of October"
+        Matcher matcher = QuestionVocabulary.DAY_OF_MONTH.matcher(msg);
         if (matcher.find()) {
-            int day = Integer.parseInt(matcher.group(1));
-            String monthName = matcher.group(3);
-            Month month = Month.valueOf(monthName.toUpperCase());
-            int year = now.getYear();
-            
-            // If the month has passed this year, assume next year
-            if (month.getValue() < now.getMonthValue()) {
-                year++;
-            }
-            
-            try {
-                return LocalDate.of(year, month, day);
-            } catch (Exception e) {
-                return null;
-            }
+            return QuestionVocabulary.resolvePastDate(Integer.parseInt(matcher.group(1)), matcher.group(3), now);
         }
         
         // Pattern: "October 8th", "September 15"
-        pattern = Pattern.compile("(january|february|march|april|may|june|july|august|september|october|november|december) (\\d{1,2})(st|nd|rd|th)?");
-        matcher = pattern.matcher(msg);
-        
+        matcher = QuestionVocabulary.MONTH_AND_DAY.matcher(msg);
         if (matcher.find()) {
-            String monthName = matcher.group(1);
-            int day = Integer.parseInt(matcher.group(2));
-            Month month = Month.valueOf(monthName.toUpperCase());
-            int year = now.getYear();
-            
-            if (month.getValue() < now.getMonthValue()) {
-                year++;
-            }
-            
-            try {
-                return LocalDate.of(year, month, day);
-            } catch (Exception e) {
-                return null;
-            }
+            return QuestionVocabulary.resolvePastDate(Integer.parseInt(matcher.group(2)), matcher.group(1), now);
         }
         
         return null;
     }
 
-    private ExpenseCategory extractCategory(String msg) {
-        for (ExpenseCategory category : ExpenseCategory.values()) {
-            String displayName = category.getDisplayName().toLowerCase();
-            String enumName = category.name().toLowerCase().replace("_", " ");
-            
-            if (msg.contains(displayName) || msg.contains(enumName)) {
-                return category;
-            }
-            
-            // Check for common synonyms
-            switch (category) {
-                case FOOD_DINING:
-                    if (containsAny(msg, "food", "dining", "restaurant", "eat")) return category;
-                    break;
-                case TRANSPORTATION:
-                    if (containsAny(msg, "transport", "car", "gas", "fuel", "uber", "taxi")) return category;
-                    break;
-                case ENTERTAINMENT:
-                    if (containsAny(msg, "entertainment", "movie", "games", "fun")) return category;
-                    break;
-                case GROCERIES:
-                    if (containsAny(msg, "grocery", "groceries", "supermarket")) return category;
-                    break;
+    private ExpenseCategory extractCategory(KeywordMatcher.Matches msg) {
+        for (Map.Entry<ExpenseCategory, String[]> entry : QuestionVocabulary.CATEGORY_TERMS.entrySet()) {
+            if (msg.any(entry.getValue())) {
+                return entry.getKey();
             }
         }
         return null;
     }
     
     // Detect subjective questions or statements that need contextual AI analysis
-    private boolean isSubjectiveOrContextualQuestion(String msg, String originalMessage) {
+    private boolean isSubjectiveOrContextualQuestion(KeywordMatcher.Matches msg, String originalMessage) {
         // Specific purchase statements with opinions/questions
-        if (containsAny(msg, "i spent", "i bought", "i purchased", "what do you think", "was that", "is that", "should i have")) {
+        if (msg.any("i spent", "i bought", "i purchased") && !msg.any("have i spent", "did i spend", "had i spent")) {
+            return true;
+        }
+        if (msg.any("what do you think", "was that", "is that", "should i have")) {
             return true;
         }
         
         // Questions about value, worth, or appropriateness
-        if (containsAny(msg, "worth it", "too much", "too expensive", "good deal", "bad deal", "waste", "smart", "stupid", "regret")) {
+        if (msg.any("worth it", "too much", "too expensive", "good deal", "bad deal", "waste", "smart", "stupid", "regret")) {
             return true;
         }
         
         // Questions about financial behavior or decisions
-        if (containsAny(msg, "should i", "is it okay", "am i", "do you think", "opinion", "advice about", "thoughts on")) {
+        if (msg.any("should i", "is it okay", "am i", "do you think", "opinion", "advice about", "thoughts on")) {
             return true;
         }
         
         // Questions about specific descriptions or patterns in spending
-        if (containsAny(msg, "description", "descriptions", "why did i", "when did i", "where did i", "what did i buy")) {
+        if (msg.any("description", "descriptions", "why did i", "when did i", "where did i", "what did i buy")) {
             return true;
         }
         
         // Questions that require analysis beyond simple data retrieval
-        if (containsAny(msg, "analyze", "pattern", "trend", "insight", "understand", "explain why", "tell me about")) {
+        if (msg.any("analyze", "pattern", "trend", "insight", "understand", "explain why", "tell me about")) {
             return true;
         }
         
         // Complex comparative or analytical questions
-        if (containsAny(msg, "compared to", "different from", "similar to", "like others", "typical", "normal", "unusual")) {
+        if (msg.any("compared to", "different from", "similar to", "like others", "typical", "normal", "unusual")) {
             return true;
         }
         
         // Questions about financial habits or lifestyle
-        if (containsAny(msg, "habit", "habits", "lifestyle", "behavior", "behaviour", "style", "way i", "how i")) {
+        if (msg.any("habit", "habits", "lifestyle", "behavior", "behaviour", "style", "way i", "how i")) {
             return true;
         }
         
         // Currency amount patterns that suggest subjective evaluation (e.g., "I spent R2000 on...")
-        Pattern amountPattern = Pattern.compile("(i\\s+(spent|paid|bought)|cost\\s+me)\\s+[\\w]*\\s*\\d+", Pattern.CASE_INSENSITIVE);
-        if (amountPattern.matcher(originalMessage).find()) {
+        if (SPENT_AMOUNT.matcher(originalMessage).find()) {
             return true;
         }
         
         // Questions that can't be answered with simple database queries
-        return containsAny(msg, "feel", "feeling", "worried", "concerned", "happy", "sad", "proud", "embarrassed");
+        return msg.any("feel", "feeling", "worried", "concerned", "happy", "sad", "proud", "embarrassed");
     }
 }
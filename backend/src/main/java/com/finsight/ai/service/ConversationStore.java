@@ -0,0 +1,161 @@
+package com.finsight.ai.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Short-lived chatbot memory, one conversation per user.
+ *
+ * A conversation keeps the last few turns verbatim in a ring buffer; turns pushed out of it are
+ * folded into a rolling summary capped in characters. It also remembers the financial context
+ * sections last sent to the agent, so a follow-up prompt carries only the sections that changed.
+ * Conversations idle past the TTL are dropped, and past the size cap the least recently used one
+ * goes first. Memory is per instance and lost on restart, which only costs a full first-turn prompt.
+ */
+@Component
+public class ConversationStore {
+
+    private final int maxTurns;
+    private final int turnChars;
+    private final int summaryChars;
+    private final long ttlMillis;
+    private final Map<Long, Conversation> conversations;
+    private final Counter opened;
+    private final Counter continued;
+    private final Counter expired;
+
+    public ConversationStore(MeterRegistry meterRegistry,
+                             @Value("${app.chatbot.memory.turns:4}") int maxTurns,
+                             @Value("${app.chatbot.memory.turn-chars:400}") int turnChars,
+                             @Value("${app.chatbot.memory.summary-chars:600}") int summaryChars,
+                             @Value("${app.chatbot.memory.ttl-minutes:30}") long ttlMinutes,
+                             @Value("${app.chatbot.memory.max-conversations:10000}") int maxConversations) {
+        this.maxTurns = Math.max(1, maxTurns);
+        this.turnChars = turnChars;
+        this.summaryChars = summaryChars;
+        this.ttlMillis = ttlMinutes * 60_000;
+        // Access order, so the eldest entry is the least recently used conversation
+        this.conversations = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Conversation> eldest) {
+                return size() > maxConversations;
+            }
+        });
+        this.opened = meterRegistry.counter("chatbot.conversations", "turn", "first");
+        this.continued = meterRegistry.counter("chatbot.conversations", "turn", "follow_up");
+        this.expired = meterRegistry.counter("chatbot.conversations.expired");
+        Gauge.builder("chatbot.conversations.active", conversations, Map::size).register(meterRegistry);
+    }
+
+    // The user's live conversation, or a new empty one if there is none or it went idle too long
+    public Conversation open(Long userId) {
+        long now = System.currentTimeMillis();
+        synchronized (conversations) {
+            Conversation conversation = conversations.get(userId);
+            if (conversation == null || conversation.idleSince(now) > ttlMillis) {
+                conversation = new Conversation(now);
+                conversations.put(userId, conversation);
+            }
+            conversation.touch(now);
+            (conversation.isEmpty() ? opened : continued).increment();
+            return conversation;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.chatbot.memory.sweep-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        synchronized (conversations) {
+            int before = conversations.size();
+            conversations.values().removeIf(conversation -> conversation.idleSince(now) > ttlMillis);
+            expired.increment(before - conversations.size());
+        }
+    }
+
+    private String clip(String text, int limit) {
+        String flat = text == null ? "" : text.replaceAll("\\s+", " ").trim();
+        return flat.length() <= limit ? flat : flat.substring(0, Math.max(0, limit - 3)) + "...";
+    }
+
+    public record Turn(String question, String answer) {
+    }
+
+    /** One user's recent turns, rolling summary and last sent context sections. */
+    public final class Conversation {
+        private final Deque<Turn> turns = new ArrayDeque<>();
+        private final Deque<String> summary = new ArrayDeque<>();
+        private int summaryLength;
+        private Map<String, String> sentSections = Map.of();
+        private volatile long lastAccess;
+
+        private Conversation(long now) {
+            this.lastAccess = now;
+        }
+
+        private long idleSince(long now) {
+            return now - lastAccess;
+        }
+
+        private void touch(long now) {
+            lastAccess = now;
+        }
+
+        // True until the first answered turn, i.e. the next prompt has to carry the full context
+        public synchronized boolean isEmpty() {
+            return turns.isEmpty() && summary.isEmpty();
+        }
+
+        public synchronized List<Turn> recentTurns() {
+            return List.copyOf(turns);
+        }
+
+        public synchronized String summary() {
+            return String.join(" ", summary);
+        }
+
+        // Sections whose content differs from what the agent was last sent, in the given order
+        public synchronized Map<String, String> changedSections(Map<String, String> sections) {
+            Map<String, String> changed = new LinkedHashMap<>();
+            sections.forEach((name, content) -> {
+                if (!Objects.equals(sentSections.get(name), content)) {
+                    changed.put(name, content);
+                }
+            });
+            return changed;
+        }
+
+        public synchronized void sent(Map<String, String> sections) {
+            sentSections = Map.copyOf(sections);
+        }
+
+        public synchronized void record(String question, String answer) {
+            turns.addLast(new Turn(clip(question, turnChars), clip(answer, turnChars)));
+            while (turns.size() > maxTurns) {
+                fold(turns.removeFirst());
+            }
+            lastAccess = System.currentTimeMillis();
+        }
+
+        // Keeps the gist of an evicted turn; the oldest gists go once the summary is over its cap
+        private void fold(Turn turn) {
+            String gist = "User asked \"" + clip(turn.question(), 80) + "\"; answered: " + clip(turn.answer(), 120) + ".";
+            summary.addLast(gist);
+            summaryLength += gist.length() + 1;
+            while (summaryLength > summaryChars && summary.size() > 1) {
+                summaryLength -= summary.removeFirst().length() + 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.finsight.ai.service;
+
+import com.finsight.ai.config.AsyncConfig;
+import com.finsight.ai.entity.DailyTip;
+import com.finsight.ai.entity.User;
+import com.finsight.ai.repository.DailyTipRepository;
+import com.finsight.ai.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Precomputed personalized daily tips.
+ *
+ * A nightly batch generates the tip of every active user and stores it in {@link DailyTip}, so the
+ * daily-tip endpoint (hit on every app open) is one indexed read. The batch starts generations at
+ * a fixed pace and caps how many run at once, so the AI agent sees a steady trickle rather than a
+ * burst. A stale entry is served as is while a refresh runs in the background; only a user with no
+ * entry at all waits for live generation. Only tips the agent wrote are stored: a rule-based
+ * fallback counts as a failure and leaves the entry to be retried.
+ */
+@Service
+public class DailyTipService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailyTipService.class);
+
+    @Autowired
+    private AITipsService aiTipsService;
+
+    @Autowired
+    private DailyTipRepository dailyTipRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private InFlightCoalescer coalescer;
+
+    @Autowired
+    private AiRateLimiter rateLimiter;
+
+    @Autowired
+    private AiCallDispatcher dispatcher;
+
+    @Autowired
+    @Qualifier(AsyncConfig.AI_EXECUTOR)
+    private AsyncTaskExecutor aiExecutor;
+
+    @Value("${app.daily-tips.page-size:200}")
+    private int pageSize;
+
+    // Users without an expense recorded in this many days are skipped by the batch
+    @Value("${app.daily-tips.active-days:30}")
+    private int activeDays;
+
+    private final int concurrency;
+    // The batch paces itself for tens of minutes, so it must not hold the shared @Scheduled thread
+    private final ExecutorService batchRunner;
+    private final long paceNanos;
+    private final Timer runTimer;
+    private final Counter generated;
+    private final Counter failures;
+    private final Counter fresh;
+    private final Counter stale;
+    private final Counter missing;
+
+    public DailyTipService(MeterRegistry meterRegistry,
+                           @Value("${app.daily-tips.concurrency:4}") int concurrency,
+                           @Value("${app.daily-tips.pace-ms:250}") long paceMs) {
+        this.concurrency = Math.max(1, concurrency);
+        this.paceNanos = TimeUnit.MILLISECONDS.toNanos(paceMs);
+        this.batchRunner = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("daily-tips-"));
+        this.runTimer = meterRegistry.timer("ai.daily_tips.batch");
+        this.generated = meterRegistry.counter("ai.daily_tips.generated");
+        this.failures = meterRegistry.counter("ai.daily_tips.failures");
+        this.fresh = meterRegistry.counter("ai.daily_tips.reads", "result", "fresh");
+        this.stale = meterRegistry.counter("ai.daily_tips.reads", "result", "stale");
+        this.missing = meterRegistry.counter("ai.daily_tips.reads", "result", "missing");
+    }
+
+    @Scheduled(cron = "${app.daily-tips.cron:0 30 3 * * *}")
+    public void precomputeDailyTips() {
+        batchRunner.execute(() -> {
+            try {
+                run(LocalDate.now());
+            } catch (RuntimeException e) {
+                logger.error("Daily tip batch failed", e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Interrupts a running batch; users it didn't reach keep yesterday's tip until a refresh
+        batchRunner.shutdownNow();
+    }
+
+    public BatchReport run(LocalDate day) {
+        long started = System.nanoTime();
+        LocalDateTime activeSince = day.minusDays(activeDays).atStartOfDay();
+        Semaphore permits = new Semaphore(concurrency);
+        AtomicInteger stored = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        int users = 0;
+        long nextStart = System.nanoTime();
+        long afterId = 0L;
+
+        try {
+            while (true) {
+                List<User> page = userRepository.findActiveAfter(afterId, activeSince, PageRequest.of(0, pageSize));
+                if (page.isEmpty()) {
+                    break;
+                }
+                for (User user : page) {
+                    // Pace starts evenly, then wait for a free slot
+                    long wait = nextStart - System.nanoTime();
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+                    nextStart = Math.max(nextStart, System.nanoTime()) + paceNanos;
+                    permits.acquire();
+                    users++;
+                    aiExecutor.execute(() -> {
+                        try {
+                            if (precompute(user, day)) {
+                                stored.incrementAndGet();
+                            }
+                        } catch (RuntimeException e) {
+                            failed.incrementAndGet();
+                            logger.warn("Failed to precompute daily tip for user {}: {}", user.getId(), e.getMessage());
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                }
+                afterId = page.get(page.size() - 1).getId();
+            }
+            // Every permit back means every generation has finished
+            permits.acquire(concurrency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Daily tip batch interrupted", e);
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+        runTimer.record(elapsed);
+        generated.increment(stored.get());
+        failures.increment(failed.get());
+        logger.info("Daily tips for {}: {} active users, {} generated, {} failures in {} ms",
+            day, users, stored.get(), failed.get(), elapsed.toMillis());
+        return new BatchReport(users, stored.get(), failed.get(), elapsed);
+    }
+
+    // Generates and stores the user's tip for the day unless an earlier run already did
+    private boolean precompute(User user, LocalDate day) {
+        DailyTip existing = dailyTipRepository.findByUserId(user.getId()).orElse(null);
+        if (existing != null && day.equals(existing.getTipDate())) {
+            return false;
+        }
+        // Batch class: the dispatcher keeps these behind chat turns and page loads
+        TipCache.Generated<String> tip = dispatcher.runAs(AiCallDispatcher.Priority.BATCH,
+            () -> aiTipsService.generateFreshPersonalizedTip(user));
+        if (!tip.fromAgent()) {
+            throw new IllegalStateException("AI agent unavailable, got a fallback tip");
+        }
+        store(existing, user.getId(), day, tip.value());
+        return true;
+    }
+
+    public CompletableFuture<String> getDailyTip(User user) {
+        LocalDate today = LocalDate.now();
+        DailyTip existing = dailyTipRepository.findByUserId(user.getId()).orElse(null);
+        if (existing != null && today.equals(existing.getTipDate())) {
+            fresh.increment();
+            return CompletableFuture.completedFuture(existing.getTip());
+        }
+
+        // Live generation counts against the user's AI quota; over it, the old tip or a rule-based one will do
+        AiRateLimiter.Permit permit = rateLimiter.tryAcquire(user.getId(), "tips-daily", 2);
+        if (permit == null) {
+            (existing == null ? missing : stale).increment();
+            return CompletableFuture.completedFuture(
+                existing != null ? existing.getTip() : aiTipsService.getPersonalizedTipWithoutAgent(user));
+        }
+
+        // One live generation per user, however many app opens race for it
+        CompletableFuture<String> live = CompletableFuture.supplyAsync(
+            () -> coalescer.execute(new RefreshKey(user.getId()), () -> refresh(user, today)), aiExecutor);
+        live.whenComplete((tip, e) -> permit.close());
+        if (existing == null) {
+            missing.increment();
+            return live;
+        }
+
+        stale.increment();
+        live.whenComplete((tip, e) -> {
+            if (e != null) {
+                logger.warn("Background daily tip refresh failed for user {}: {}", user.getId(), e.getMessage());
+            }
+        });
+        return CompletableFuture.completedFuture(existing.getTip());
+    }
+
+    // A fallback is still returned to the caller, but not stored, so the next app open tries the agent again
+    private String refresh(User user, LocalDate day) {
+        TipCache.Generated<String> tip = aiTipsService.generateFreshPersonalizedTip(user);
+        if (!tip.fromAgent()) {
+            failures.increment();
+            return tip.value();
+        }
+        store(dailyTipRepository.findByUserId(user.getId()).orElse(null), user.getId(), day, tip.value());
+        return tip.value();
+    }
+
+    private void store(DailyTip existing, Long userId, LocalDate day, String tip) {
+        DailyTip dailyTip = existing != null ? existing : new DailyTip(userId, day, tip);
+        dailyTip.setTipDate(day);
+        dailyTip.setTip(tip);
+        dailyTip.setGeneratedAt(LocalDateTime.now());
+        try {
+            dailyTipRepository.save(dailyTip);
+        } catch (DataIntegrityViolationException e) {
+            // The batch and a live refresh inserted the user's first row at the same time; either tip will do
+            logger.debug("Daily tip for user {} already stored concurrently", userId);
+        }
+    }
+
+    private record RefreshKey(Long userId) {
+    }
+
+    public record BatchReport(int users, int generated, int failures, Duration elapsed) {
+    }
+}
@@ -24,6 +24,7 @@ public class DatabaseMigrationService implements ApplicationRunner {
         try {
             migrateCategoryConstraints();
             migrateNotesFieldLength();
+            migrateRecurringExpenseKey();
         } catch (Exception e) {
             logger.warn("Database migration failed, but application will continue: {}", e.getMessage());
         }
@@ -93,4 +94,20 @@ public class DatabaseMigrationService implements ApplicationRunner {
             throw e;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Add the (recurring_expense_id, recurrence_due_date) key used for idempotent recurring materialization
+     */
+    private void migrateRecurringExpenseKey() {
+        logger.info("Checking recurring expense materialization key...");
+        
+        try {
+            jdbcTemplate.execute("ALTER TABLE expenses ADD COLUMN IF NOT EXISTS recurrence_due_date DATE");
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS uk_expenses_recurring_due " +
+                "ON expenses (recurring_expense_id, recurrence_due_date)");
+            logger.info("✅ Recurring expense materialization key is in place");
+        } catch (RuntimeException e) {
+            logger.warn("Failed to create recurring expense materialization key: {}", e.getMessage());
+        }
+    }
+}
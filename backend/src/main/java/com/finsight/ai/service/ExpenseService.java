@@ -4,6 +4,7 @@ import com.finsight.ai.dto.ExpenseDto;
 import com.finsight.ai.entity.Budget;
 import com.finsight.ai.entity.Expense;
 import com.finsight.ai.entity.ExpenseCategory;
+import com.finsight.ai.entity.OutboxEventType;
 import com.finsight.ai.entity.RecurringExpense;
 import com.finsight.ai.entity.User;
 import com.finsight.ai.repository.BudgetRepository;
@@ -11,6 +12,7 @@ import com.finsight.ai.repository.ExpenseRepository;
 import com.finsight.ai.repository.RecurringExpenseRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -34,6 +36,10 @@ public class ExpenseService {
     @Autowired
     private BudgetService budgetService;
 
+    @Autowired
+    private OutboxService outboxService;
+
+    @Transactional
     public Expense createExpense(ExpenseDto expenseDto, User user) {
         // Check if budget exists for this category, month, and year
         LocalDate expenseDate = expenseDto.getDate();
@@ -82,6 +88,8 @@ public class ExpenseService {
         // Update budget spent amount
         budgetService.updateBudgetSpent(user, expenseDto.getCategory(), expenseDto.getDate());
 
+        outboxService.recordExpenseEvent(OutboxEventType.EXPENSE_CREATED, savedExpense);
+
         return savedExpense;
     }
 
@@ -103,6 +111,7 @@ public class ExpenseService {
             user, category, startDate, endDate);
     }
 
+    @Transactional
     public Expense updateExpense(Long expenseId, ExpenseDto expenseDto, User user) {
         Expense expense = expenseRepository.findById(expenseId)
             .orElseThrow(() -> new RuntimeException("Expense not found"));
@@ -111,6 +120,9 @@ public class ExpenseService {
             throw new RuntimeException("Unauthorized to update this expense");
         }
 
+        ExpenseCategory previousCategory = expense.getCategory();
+        LocalDate previousDate = expense.getDate();
+
         expense.setDescription(expenseDto.getDescription());
         expense.setAmount(expenseDto.getAmount());
         expense.setCategory(expenseDto.getCategory());
@@ -123,9 +135,12 @@ public class ExpenseService {
         // Update budget spent amount
         budgetService.updateBudgetSpent(user, expenseDto.getCategory(), expenseDto.getDate());
 
+        outboxService.recordExpenseEvent(OutboxEventType.EXPENSE_UPDATED, savedExpense, previousCategory, previousDate);
+
         return savedExpense;
     }
 
+    @Transactional
     public void deleteExpense(Long expenseId, User user) {
         Expense expense = expenseRepository.findById(expenseId)
             .orElseThrow(() -> new RuntimeException("Expense not found"));
@@ -137,6 +152,7 @@ public class ExpenseService {
         ExpenseCategory category = expense.getCategory();
         LocalDate date = expense.getDate();
 
+        outboxService.recordExpenseEvent(OutboxEventType.EXPENSE_DELETED, expense);
         expenseRepository.delete(expense);
 
         // Update budget spent amount
@@ -0,0 +1,189 @@
+package com.finsight.ai.service;
+
+import com.finsight.ai.entity.Budget;
+import com.finsight.ai.entity.Expense;
+import com.finsight.ai.entity.ExpenseCategory;
+import com.finsight.ai.entity.User;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * The financial facts prompts are built from, for one user and one request.
+ *
+ * Every fact is a memoized supplier: nothing is queried until a prompt asks for it, and each query
+ * runs at most once however many prompt builders read the fact. Derived figures (totals, the top
+ * category) are computed from the loaded facts without further queries. {@link #queryCount()}
+ * reports how many queries the request actually ran. Create one per request with
+ * {@link FinancialContextFactory}; it is not meant to outlive the request.
+ *
+ * A prompt that needs every fact can {@link #prefetch} them: the queries then run concurrently and
+ * reads wait for them, up to a deadline shared by the whole context.
+ */
+public class FinancialContext {
+
+    private final User user;
+    private final LocalDate today;
+    private final AtomicInteger queries = new AtomicInteger();
+    private final List<Fact<?>> queryFacts = new ArrayList<>();
+    // System.nanoTime() by which prefetched facts must be loaded; 0 without a prefetch
+    private volatile long deadline;
+
+    private final Supplier<List<Expense>> monthExpenses;
+    private final Supplier<List<Expense>> yearToDateExpenses;
+    private final Supplier<List<Budget>> monthBudgets;
+    private final Supplier<Map<ExpenseCategory, BigDecimal>> monthCategorySpending;
+    private final Supplier<BigDecimal> monthTotal;
+    private final Supplier<BigDecimal> monthBudgetTotal;
+
+    FinancialContext(User user, LocalDate today, ExpenseService expenseService, BudgetService budgetService) {
+        this.user = user;
+        this.today = today;
+        LocalDate monthStart = today.withDayOfMonth(1);
+        LocalDate monthEnd = today.withDayOfMonth(today.lengthOfMonth());
+        this.monthExpenses = query(() -> expenseService.getUserExpensesByDateRange(user, monthStart, monthEnd));
+        this.yearToDateExpenses = query(() -> expenseService.getUserExpensesByDateRange(user, today.withDayOfYear(1), today));
+        this.monthBudgets = query(() -> budgetService.getUserBudgetsByMonth(user, today.getMonthValue(), today.getYear()));
+        this.monthCategorySpending = query(() -> expenseService.getExpensesByCategory(user, monthStart, monthEnd));
+        this.monthTotal = memoize(() -> sum(monthExpenses.get().stream().map(Expense::getAmount).toList()));
+        this.monthBudgetTotal = memoize(() -> sum(monthBudgets.get().stream().map(Budget::getMonthlyLimit).toList()));
+    }
+
+    private <T> Supplier<T> query(Supplier<T> loader) {
+        Fact<T> fact = memoize(() -> {
+            queries.incrementAndGet();
+            return loader.get();
+        });
+        queryFacts.add(fact);
+        return fact;
+    }
+
+    private <T> Fact<T> memoize(Supplier<T> loader) {
+        return new Fact<>(loader);
+    }
+
+    // Starts every query on the executor at once; later reads wait for them until the timeout
+    public FinancialContext prefetch(Executor executor, Duration timeout) {
+        deadline = System.nanoTime() + timeout.toNanos();
+        for (Fact<?> fact : queryFacts) {
+            fact.start(executor);
+        }
+        return this;
+    }
+
+    private static BigDecimal sum(List<BigDecimal> amounts) {
+        return amounts.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    public User user() {
+        return user;
+    }
+
+    public LocalDate today() {
+        return today;
+    }
+
+    // Expenses dated anywhere in the current calendar month, newest first
+    public List<Expense> monthExpenses() {
+        return monthExpenses.get();
+    }
+
+    // Expenses from January 1st through today, newest first
+    public List<Expense> yearToDateExpenses() {
+        return yearToDateExpenses.get();
+    }
+
+    public List<Budget> monthBudgets() {
+        return monthBudgets.get();
+    }
+
+    public Map<ExpenseCategory, BigDecimal> monthCategorySpending() {
+        return monthCategorySpending.get();
+    }
+
+    public BigDecimal monthTotal() {
+        return monthTotal.get();
+    }
+
+    public BigDecimal monthBudgetTotal() {
+        return monthBudgetTotal.get();
+    }
+
+    // Highest-spending category this month, or null without expenses
+    public ExpenseCategory topCategory() {
+        return monthCategorySpending().entrySet().stream()
+            .max(Map.Entry.comparingByValue())
+            .map(Map.Entry::getKey)
+            .orElse(null);
+    }
+
+    public int queryCount() {
+        return queries.get();
+    }
+
+    /** A memoized value; loaded by the first reader, or in the background after {@link #start}. */
+    private final class Fact<T> implements Supplier<T> {
+        private final Supplier<T> loader;
+        private CompletableFuture<T> result;
+
+        private Fact(Supplier<T> loader) {
+            this.loader = loader;
+        }
+
+        synchronized void start(Executor executor) {
+            if (result == null) {
+                result = CompletableFuture.supplyAsync(loader, executor);
+            }
+        }
+
+        @Override
+        public T get() {
+            CompletableFuture<T> pending;
+            boolean load = false;
+            synchronized (this) {
+                if (result == null) {
+                    result = new CompletableFuture<>();
+                    load = true;
+                }
+                pending = result;
+            }
+            if (load) {
+                try {
+                    pending.complete(loader.get());
+                } catch (RuntimeException e) {
+                    pending.completeExceptionally(e);
+                }
+            }
+            return await(pending);
+        }
+
+        private T await(CompletableFuture<T> pending) {
+            try {
+                long limit = deadline;
+                if (limit == 0 || pending.isDone()) {
+                    return pending.join();
+                }
+                return pending.get(Math.max(0, limit - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (CompletionException | ExecutionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+            } catch (TimeoutException e) {
+                throw new IllegalStateException("Financial context for user " + user.getId() + " not loaded before its deadline");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while loading financial context", e);
+            }
+        }
+    }
+}
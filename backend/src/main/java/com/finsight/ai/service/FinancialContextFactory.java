@@ -0,0 +1,40 @@
+package com.finsight.ai.service;
+
+import com.finsight.ai.config.AsyncConfig;
+import com.finsight.ai.entity.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+/** Creates the per-request {@link FinancialContext} that tip and chatbot prompts share. */
+@Component
+public class FinancialContextFactory {
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private BudgetService budgetService;
+
+    @Autowired
+    @Qualifier(AsyncConfig.AI_EXECUTOR)
+    private AsyncTaskExecutor aiExecutor;
+
+    // How long a prompt may wait for its prefetched facts before falling back
+    @Value("${app.ai.context-deadline-ms:3000}")
+    private long contextDeadlineMs;
+
+    public FinancialContext create(User user) {
+        return new FinancialContext(user, LocalDate.now(), expenseService, budgetService);
+    }
+
+    // A context whose queries are already running concurrently on virtual threads
+    public FinancialContext prefetched(User user) {
+        return create(user).prefetch(aiExecutor, Duration.ofMillis(contextDeadlineMs));
+    }
+}
@@ -4,6 +4,7 @@ import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseToken;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -11,6 +12,12 @@ public class FirebaseAuthService {
 
     private static final Logger logger = LoggerFactory.getLogger(FirebaseAuthService.class);
 
+    public static final String LOAD_TEST_TOKEN_PREFIX = "loadtest-";
+
+    // Only the loadtest profile turns this on; its seeded users sign in with their uid as the token
+    @Value("${app.auth.accept-load-test-tokens:false}")
+    private boolean acceptLoadTestTokens;
+
     public FirebaseToken verifyToken(String idToken) {
         try {
             logger.debug("Verifying Firebase token...");
@@ -24,6 +31,9 @@ public class FirebaseAuthService {
     }
 
     public String getUserIdFromToken(String idToken) {
+        if (acceptLoadTestTokens && idToken.startsWith(LOAD_TEST_TOKEN_PREFIX)) {
+            return idToken;
+        }
         FirebaseToken token = verifyToken(idToken);
         return token.getUid();
     }
@@ -0,0 +1,69 @@
+package com.finsight.ai.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Singleflight for expensive AI work: while a call for a key is running, identical calls wait for
+ * it and share its result (or exception) instead of starting their own. Nothing is kept once the
+ * call finishes, so this only deduplicates concurrent requests; caching is {@link TipCache}'s job.
+ */
+@Component
+public class InFlightCoalescer {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Map<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter followers;
+
+    public InFlightCoalescer(MeterRegistry meterRegistry) {
+        this.leaders = meterRegistry.counter("ai.coalescer.calls", "role", "leader");
+        this.followers = meterRegistry.counter("ai.coalescer.calls", "role", "follower");
+        meterRegistry.gauge("ai.coalescer.in_flight", inFlight, Map::size);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Object key, Supplier<T> work) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            followers.increment();
+            try {
+                return (T) running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        leaders.increment();
+        try {
+            T result = work.get();
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // Key for a user's prompt; case and whitespace differences do not change what the LLM is asked
+    public static PromptKey promptKey(Long userId, String prompt) {
+        String normalized = WHITESPACE.matcher(prompt.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+        return new PromptKey(userId, normalized);
+    }
+
+    public record PromptKey(Long userId, String prompt) {
+    }
+}
@@ -0,0 +1,122 @@
+package com.finsight.ai.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton over a fixed keyword set.
+ *
+ * Built once; {@link #scan} walks the text a single time and reports every keyword that occurs in
+ * it as a substring, which is exactly what {@code String.contains} answered keyword by keyword.
+ */
+final class KeywordMatcher {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<Map<Character, Integer>> transitions = new ArrayList<>();
+    private final List<Integer> failure = new ArrayList<>();
+    // Keyword ids ending at each node, including those reached through failure links
+    private final List<BitSet> outputs = new ArrayList<>();
+
+    KeywordMatcher(Collection<String> keywords) {
+        addNode();
+        for (String keyword : new LinkedHashSet<>(keywords)) {
+            if (keyword.isEmpty()) {
+                continue;
+            }
+            int id = ids.size();
+            ids.put(keyword, id);
+            int node = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                Integer next = transitions.get(node).get(keyword.charAt(i));
+                if (next == null) {
+                    next = addNode();
+                    transitions.get(node).put(keyword.charAt(i), next);
+                }
+                node = next;
+            }
+            outputs.get(node).set(id);
+        }
+        linkFailures();
+    }
+
+    private int addNode() {
+        transitions.add(new HashMap<>());
+        failure.add(0);
+        outputs.add(new BitSet());
+        return transitions.size() - 1;
+    }
+
+    // Breadth-first, so a node's failure target is always resolved before its children
+    private void linkFailures() {
+        Queue<Integer> queue = new ArrayDeque<>(transitions.get(0).values());
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (Map.Entry<Character, Integer> edge : transitions.get(node).entrySet()) {
+                int child = edge.getValue();
+                int fallback = failure.get(node);
+                while (fallback != 0 && !transitions.get(fallback).containsKey(edge.getKey())) {
+                    fallback = failure.get(fallback);
+                }
+                Integer target = transitions.get(fallback).get(edge.getKey());
+                int link = target != null ? target : 0;
+                failure.set(child, link);
+                outputs.get(child).or(outputs.get(link));
+                queue.add(child);
+            }
+        }
+    }
+
+    Matches scan(String text) {
+        BitSet found = new BitSet(ids.size());
+        int node = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            while (node != 0 && !transitions.get(node).containsKey(c)) {
+                node = failure.get(node);
+            }
+            node = transitions.get(node).getOrDefault(c, 0);
+            found.or(outputs.get(node));
+        }
+        return new Matches(text, found);
+    }
+
+    /** The keywords found in one message, plus the message itself. */
+    final class Matches {
+        private final String text;
+        private final BitSet found;
+
+        private Matches(String text, BitSet found) {
+            this.text = text;
+            this.found = found;
+        }
+
+        public String text() {
+            return text;
+        }
+
+        public boolean contains(String keyword) {
+            Integer id = ids.get(keyword);
+            // A keyword the automaton wasn't built with is a bug at the call site, not a miss
+            if (id == null) {
+                throw new IllegalArgumentException("Keyword not in the matcher: \"" + keyword + "\"");
+            }
+            return found.get(id);
+        }
+
+        public boolean any(String... keywords) {
+            for (String keyword : keywords) {
+                if (contains(keyword)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.finsight.ai.service;
+
+import com.finsight.ai.entity.OutboxEvent;
+import com.finsight.ai.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes committed outbox rows to in-process {@code @EventListener}s.
+ *
+ * Delivery is at-least-once: a row is only marked published after every listener returned.
+ * Events of one user are delivered in insertion order; when one fails, the rest of that
+ * user's batch is held back until the next run so listeners never see them out of order.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.retention-days:7}")
+    private int retentionDays;
+
+    private final TransactionTemplate batchTransaction;
+    private final TransactionTemplate listenerTransaction;
+
+    public OutboxRelay(PlatformTransactionManager transactionManager) {
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        // Listeners get their own transaction so a failing subscriber cannot roll back the batch
+        this.listenerTransaction = new TransactionTemplate(transactionManager);
+        this.listenerTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.relay-interval-ms:1000}")
+    public void relay() {
+        // Keep draining while full batches go through; held-back events wait for the next run
+        int published;
+        do {
+            Integer count = batchTransaction.execute(status -> relayBatch());
+            published = count != null ? count : 0;
+        } while (published == batchSize);
+    }
+
+    @Scheduled(cron = "${app.outbox.purge-cron:0 30 3 * * *}")
+    public void purgePublished() {
+        Integer deleted = batchTransaction.execute(status ->
+            outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minusDays(retentionDays)));
+        logger.info("Purged {} published outbox events older than {} days", deleted, retentionDays);
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.findUnpublishedBatch(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, List<OutboxEvent>> byUser = new LinkedHashMap<>();
+        for (OutboxEvent event : batch) {
+            byUser.computeIfAbsent(event.getUserId(), id -> new ArrayList<>()).add(event);
+        }
+
+        int published = 0;
+        for (List<OutboxEvent> userEvents : byUser.values()) {
+            for (OutboxEvent event : userEvents) {
+                if (!deliver(event)) {
+                    break;
+                }
+                published++;
+            }
+        }
+
+        logger.debug("Outbox relay published {}/{} events for {} users", published, batch.size(), byUser.size());
+        return published;
+    }
+
+    private boolean deliver(OutboxEvent event) {
+        try {
+            listenerTransaction.executeWithoutResult(status ->
+                eventPublisher.publishEvent(outboxService.toEvent(event)));
+            event.setPublishedAt(LocalDateTime.now());
+            return true;
+        } catch (RuntimeException e) {
+            event.setAttempts(event.getAttempts() + 1);
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            event.setLastError(message.length() > 500 ? message.substring(0, 500) : message);
+
+            if (event.getAttempts() >= maxAttempts) {
+                // Give up so one poison event does not block the user's stream forever
+                event.setPublishedAt(LocalDateTime.now());
+                logger.error("Dropping outbox event {} ({}) after {} attempts: {}",
+                    event.getId(), event.getEventType(), event.getAttempts(), message);
+                return true;
+            }
+
+            logger.warn("Outbox event {} ({}) failed on attempt {}: {}",
+                event.getId(), event.getEventType(), event.getAttempts(), message);
+            return false;
+        }
+    }
+}
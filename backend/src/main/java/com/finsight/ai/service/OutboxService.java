@@ -0,0 +1,75 @@
+package com.finsight.ai.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finsight.ai.entity.Budget;
+import com.finsight.ai.entity.Expense;
+import com.finsight.ai.entity.ExpenseCategory;
+import com.finsight.ai.entity.OutboxEvent;
+import com.finsight.ai.entity.OutboxEventType;
+import com.finsight.ai.event.FinancialDataChangedEvent;
+import com.finsight.ai.event.FinancialDataChangedEvent.ChangePayload;
+import com.finsight.ai.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+/**
+ * Writes expense and budget lifecycle events to the outbox table. Must be called inside the
+ * transaction that performs the mutation so the event commits (or rolls back) with it.
+ */
+@Service
+public class OutboxService {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordExpenseEvent(OutboxEventType type, Expense expense) {
+        recordExpenseEvent(type, expense, null, null);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordExpenseEvent(OutboxEventType type, Expense expense,
+                                   ExpenseCategory previousCategory, LocalDate previousDate) {
+        ChangePayload payload = new ChangePayload(expense.getCategory(), expense.getDate(),
+            previousCategory, previousDate, expense.getAmount());
+        save(type, expense.getUser().getId(), expense.getId(), payload);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordBudgetEvent(OutboxEventType type, Budget budget) {
+        LocalDate monthStart = LocalDate.of(budget.getYear(), budget.getMonth(), 1);
+        ChangePayload payload = new ChangePayload(budget.getCategory(), monthStart,
+            null, null, budget.getMonthlyLimit());
+        save(type, budget.getUser().getId(), budget.getId(), payload);
+    }
+
+    public ChangePayload readPayload(OutboxEvent event) {
+        try {
+            return objectMapper.readValue(event.getPayload(), ChangePayload.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable outbox payload for event " + event.getId(), e);
+        }
+    }
+
+    public FinancialDataChangedEvent toEvent(OutboxEvent event) {
+        return new FinancialDataChangedEvent(event.getId(), event.getEventType(), event.getUserId(),
+            event.getAggregateId(), readPayload(event), event.getCreatedAt());
+    }
+
+    private void save(OutboxEventType type, Long userId, Long aggregateId, ChangePayload payload) {
+        try {
+            outboxEventRepository.save(new OutboxEvent(type, userId, aggregateId,
+                objectMapper.writeValueAsString(payload)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize outbox payload", e);
+        }
+    }
+}
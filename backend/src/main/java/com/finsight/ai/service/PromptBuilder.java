@@ -0,0 +1,159 @@
+package com.finsight.ai.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Assembles agent prompts from prioritized sections within a token budget.
+ *
+ * Sections keep the order they were added in. While the estimate is over budget, the lowest
+ * priority section gives way first: a list section loses its last item, down to its header, and
+ * any other section is dropped whole. Required sections (the question, the instructions) are never
+ * touched. Sizes are recorded per operation in {@code ai.prompt.tokens}.
+ */
+@Component
+public class PromptBuilder {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromptBuilder.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int maxTokens;
+
+    public PromptBuilder(MeterRegistry meterRegistry,
+                         @Value("${app.ai.prompt.max-tokens:1200}") int maxTokens) {
+        this.meterRegistry = meterRegistry;
+        this.maxTokens = maxTokens;
+    }
+
+    public Draft draft(String operation) {
+        return new Draft(operation);
+    }
+
+    // Rough token count for English prompt text, about four characters per token
+    public static int estimateTokens(String text) {
+        return (text.length() + 3) / 4;
+    }
+
+    /** One prompt being assembled; not thread-safe. */
+    public final class Draft {
+        private final String operation;
+        private final List<Section> sections = new ArrayList<>();
+
+        private Draft(String operation) {
+            this.operation = operation;
+        }
+
+        public Draft required(String text) {
+            return add(text, Integer.MAX_VALUE, false);
+        }
+
+        // Dropped whole when over budget, lowest priority first
+        public Draft section(int priority, String text) {
+            return add(text, priority, false);
+        }
+
+        // A header line followed by one item per line; trimmed item by item from the end
+        public Draft list(int priority, String text) {
+            return add(text, priority, true);
+        }
+
+        private Draft add(String text, int priority, boolean list) {
+            if (text != null && !text.isEmpty()) {
+                sections.add(new Section(text, priority, list));
+            }
+            return this;
+        }
+
+        public String build() {
+            int tokens = sections.stream().mapToInt(Section::tokens).sum();
+            int before = tokens;
+            List<Section> byPriority = sections.stream()
+                .filter(section -> section.priority != Integer.MAX_VALUE)
+                .sorted(Comparator.comparingInt(section -> section.priority))
+                .toList();
+            for (Section section : byPriority) {
+                if (tokens <= maxTokens) {
+                    break;
+                }
+                tokens -= section.tokens();
+                section.shrinkBy(tokens);
+                tokens += section.tokens();
+            }
+
+            StringBuilder prompt = new StringBuilder();
+            sections.forEach(section -> prompt.append(section.text()));
+            String text = prompt.toString();
+            int estimate = estimateTokens(text);
+            DistributionSummary.builder("ai.prompt.tokens")
+                .baseUnit("tokens")
+                .tag("operation", operation)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(estimate);
+            // Per-section estimates round up, so their sum overshoots the whole; only a trimmed section means compaction
+            if (sections.stream().anyMatch(Section::trimmed)) {
+                meterRegistry.counter("ai.prompt.compacted", "operation", operation).increment();
+                logger.debug("Compacted {} prompt from ~{} to ~{} tokens (budget {})", operation, before, estimate, maxTokens);
+            }
+            return text;
+        }
+
+        private final class Section {
+            private final int priority;
+            private final boolean list;
+            private final List<String> lines;
+            private int kept;
+
+            private Section(String text, int priority, boolean list) {
+                this.priority = priority;
+                this.list = list;
+                this.lines = list ? Arrays.asList(text.split("(?<=\n)")) : List.of(text);
+                this.kept = lines.size();
+            }
+
+            private String text() {
+                return String.join("", lines.subList(0, kept));
+            }
+
+            private int tokens() {
+                return estimateTokens(text());
+            }
+
+            private boolean trimmed() {
+                return kept < lines.size();
+            }
+
+            // Gives up items (or the whole section) until the rest of the prompt plus this section fits
+            private void shrinkBy(int othersTokens) {
+                if (list) {
+                    int header = headerLines();
+                    while (kept > header && othersTokens + tokens() > maxTokens) {
+                        kept--;
+                    }
+                    if (kept > header) {
+                        return;
+                    }
+                }
+                kept = 0;
+            }
+
+            // Leading blank lines plus the title line
+            private int headerLines() {
+                int header = 0;
+                while (header < lines.size() && lines.get(header).isBlank()) {
+                    header++;
+                }
+                return Math.min(header + 1, lines.size());
+            }
+        }
+    }
+}
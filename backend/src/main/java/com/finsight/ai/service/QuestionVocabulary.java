@@ -0,0 +1,76 @@
+package com.finsight.ai.service;
+
+import com.finsight.ai.entity.ExpenseCategory;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Words the chatbot recognises in questions: category names and synonyms, month names and the
+ * day-of-month date forms. Shared by the intent router and the SQL template cache so both read a
+ * question the same way.
+ */
+final class QuestionVocabulary {
+
+    static final String[] MONTH_NAMES = Arrays.stream(Month.values())
+        .map(month -> month.name().toLowerCase(Locale.ROOT))
+        .toArray(String[]::new);
+
+    // Display name, enum name and common synonyms per category, in enum order
+    static final Map<ExpenseCategory, String[]> CATEGORY_TERMS = categoryTerms();
+
+    private static final String MONTH_ALTERNATION = "(" + String.join("|", MONTH_NAMES) + ")";
+
+    // "8th of october": group 1 is the day, group 3 the month
+    static final Pattern DAY_OF_MONTH = Pattern.compile("(\\d{1,2})(st|nd|rd|th)? of " + MONTH_ALTERNATION);
+
+    // "october 8th": group 1 is the month, group 2 the day
+    static final Pattern MONTH_AND_DAY = Pattern.compile(MONTH_ALTERNATION + " (\\d{1,2})(st|nd|rd|th)?");
+
+    private QuestionVocabulary() {
+    }
+
+    private static Map<ExpenseCategory, String[]> categoryTerms() {
+        Map<ExpenseCategory, String[]> terms = new EnumMap<>(ExpenseCategory.class);
+        for (ExpenseCategory category : ExpenseCategory.values()) {
+            List<String> names = new ArrayList<>(List.of(
+                category.getDisplayName().toLowerCase(),
+                category.name().toLowerCase().replace("_", " ")));
+            switch (category) {
+                case FOOD_DINING:
+                    names.addAll(List.of("food", "dining", "restaurant", "eat"));
+                    break;
+                case TRANSPORTATION:
+                    names.addAll(List.of("transport", "car", "gas", "fuel", "uber", "taxi"));
+                    break;
+                case ENTERTAINMENT:
+                    names.addAll(List.of("entertainment", "movie", "games", "fun"));
+                    break;
+                case GROCERIES:
+                    names.addAll(List.of("grocery", "groceries", "supermarket"));
+                    break;
+            }
+            terms.put(category, names.toArray(String[]::new));
+        }
+        return terms;
+    }
+
+    // Spending questions look back, so a date later this year means last year; null if the day doesn't exist
+    static LocalDate resolvePastDate(int day, String monthName, LocalDate now) {
+        Month month = Month.valueOf(monthName.toUpperCase(Locale.ROOT));
+        int year = month.getValue() > now.getMonthValue() ? now.getYear() - 1 : now.getYear();
+        try {
+            return LocalDate.of(year, month, day);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+}
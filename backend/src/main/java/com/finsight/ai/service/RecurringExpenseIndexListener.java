@@ -0,0 +1,65 @@
+package com.finsight.ai.service;
+
+import com.finsight.ai.entity.RecurringExpense;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+
+/**
+ * JPA listener that mirrors recurring schedule changes into the {@link RecurringScheduleIndex}
+ * and drops the user's cached {@link RecurringProjectionService} projections.
+ * Changes are applied after commit so rolled-back work never reaches the index.
+ */
+@Component
+public class RecurringExpenseIndexListener {
+
+    // Resolved lazily: the index depends on repositories, which depend on this listener
+    @Autowired
+    private ObjectProvider<RecurringScheduleIndex> scheduleIndex;
+
+    @Autowired
+    private ObjectProvider<RecurringProjectionService> projectionService;
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(RecurringExpense schedule) {
+        Long scheduleId = schedule.getId();
+        Long userId = schedule.getUser().getId();
+        LocalDate nextDueDate = schedule.getNextDueDate();
+        boolean active = Boolean.TRUE.equals(schedule.getIsActive());
+        afterCommit(() -> {
+            scheduleIndex.getObject().upsert(scheduleId, userId, nextDueDate, active);
+            projectionService.getObject().evict(userId);
+        });
+    }
+
+    @PostRemove
+    public void onRemoved(RecurringExpense schedule) {
+        Long scheduleId = schedule.getId();
+        Long userId = schedule.getUser().getId();
+        afterCommit(() -> {
+            scheduleIndex.getObject().remove(scheduleId);
+            projectionService.getObject().evict(userId);
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
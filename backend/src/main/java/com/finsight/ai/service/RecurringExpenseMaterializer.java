@@ -0,0 +1,258 @@
+package com.finsight.ai.service;
+
+import com.finsight.ai.entity.Expense;
+import com.finsight.ai.entity.OutboxEventType;
+import com.finsight.ai.entity.RecurringExpense;
+import com.finsight.ai.repository.ExpenseRepository;
+import com.finsight.ai.repository.RecurringExpenseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Turns due recurring expenses into {@link Expense} rows.
+ *
+ * Work normally arrives from {@link RecurringScheduleIndex} as schedules come due; {@link #run}
+ * is the full-table fallback. Due schedules are partitioned by user across a fixed worker pool,
+ * so one user's schedules (and their budget recalculation) are always handled by one thread.
+ * Each schedule catches up every missed period in one pass. The unique key on
+ * (recurring_expense_id, recurrence_due_date) makes re-runs and overlapping runs harmless.
+ */
+@Service
+public class RecurringExpenseMaterializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecurringExpenseMaterializer.class);
+
+    @Autowired
+    private RecurringExpenseRepository recurringExpenseRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private BudgetService budgetService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Value("${app.recurring.page-size:1000}")
+    private int pageSize;
+
+    // Upper bound of periods generated per schedule in one pass (a year of daily charges)
+    @Value("${app.recurring.max-catch-up:366}")
+    private int maxCatchUp;
+
+    private final int workers;
+    private final ExecutorService workerPool;
+    private final TransactionTemplate scheduleTransaction;
+    private final Timer runTimer;
+    private final Counter expensesCreated;
+    private final Counter scheduleFailures;
+
+    public RecurringExpenseMaterializer(PlatformTransactionManager transactionManager,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${app.recurring.workers:4}") int workers) {
+        this.workers = Math.max(1, workers);
+        this.workerPool = Executors.newFixedThreadPool(this.workers, new CustomizableThreadFactory("recurring-"));
+        this.scheduleTransaction = new TransactionTemplate(transactionManager);
+        this.runTimer = meterRegistry.timer("recurring.materialization.run");
+        this.expensesCreated = meterRegistry.counter("recurring.materialization.expenses");
+        this.scheduleFailures = meterRegistry.counter("recurring.materialization.failures");
+    }
+
+    // Full table sweep; the due index fires schedules as they come due, so this is only a safety net
+    @Scheduled(cron = "${app.recurring.reconcile-cron:-}")
+    public void reconcileDueExpenses() {
+        run(LocalDate.now());
+    }
+
+    public MaterializationReport run(LocalDate asOf) {
+        long started = System.nanoTime();
+        int[] totals = new int[3];
+        List<Long> failedIds = new ArrayList<>();
+        long afterId = 0L;
+
+        while (true) {
+            List<Object[]> page = recurringExpenseRepository.findDueScheduleKeys(asOf, afterId, PageRequest.of(0, pageSize));
+            if (page.isEmpty()) {
+                break;
+            }
+
+            List<DueSchedule> due = new ArrayList<>(page.size());
+            for (Object[] key : page) {
+                due.add(new DueSchedule((Long) key[0], (Long) key[1]));
+            }
+            accumulate(totals, process(due, asOf, failedIds));
+            afterId = due.get(due.size() - 1).scheduleId();
+        }
+
+        return report(asOf, totals, failedIds, started);
+    }
+
+    // Materializes an explicit set of due schedules, e.g. the ones handed out by the due index
+    public MaterializationReport materialize(List<DueSchedule> due, LocalDate asOf) {
+        long started = System.nanoTime();
+        int[] totals = new int[3];
+        List<Long> failedIds = new ArrayList<>();
+        for (int from = 0; from < due.size(); from += pageSize) {
+            accumulate(totals, process(due.subList(from, Math.min(due.size(), from + pageSize)), asOf, failedIds));
+        }
+        return report(asOf, totals, failedIds, started);
+    }
+
+    // Returns {schedules, created, failures} for one page and appends failed schedule ids to failedIds
+    private int[] process(List<DueSchedule> page, LocalDate asOf, List<Long> failedIds) {
+        List<List<Long>> partitions = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (DueSchedule schedule : page) {
+            partitions.get(Math.floorMod(schedule.userId(), workers)).add(schedule.scheduleId());
+        }
+
+        AtomicInteger created = new AtomicInteger();
+        Queue<Long> failed = new ConcurrentLinkedQueue<>();
+        List<Future<?>> futures = new ArrayList<>(workers);
+        for (List<Long> partition : partitions) {
+            if (!partition.isEmpty()) {
+                futures.add(workerPool.submit(() -> {
+                    for (Long scheduleId : partition) {
+                        try {
+                            created.addAndGet(materializeSchedule(scheduleId, asOf));
+                        } catch (RuntimeException e) {
+                            failed.add(scheduleId);
+                            logger.warn("Failed to materialize recurring expense {}: {}", scheduleId, e.getMessage());
+                        }
+                    }
+                }));
+            }
+        }
+        awaitAll(futures);
+        failedIds.addAll(failed);
+        return new int[] {page.size(), created.get(), failed.size()};
+    }
+
+    private void accumulate(int[] totals, int[] page) {
+        for (int i = 0; i < totals.length; i++) {
+            totals[i] += page[i];
+        }
+    }
+
+    private MaterializationReport report(LocalDate asOf, int[] totals, List<Long> failedIds, long started) {
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+        runTimer.record(elapsed);
+        expensesCreated.increment(totals[1]);
+        scheduleFailures.increment(totals[2]);
+
+        MaterializationReport report = new MaterializationReport(totals[0], totals[1], totals[2], elapsed, failedIds);
+        logger.info("Recurring materialization for {}: {} schedules, {} expenses, {} failures in {} ms ({} schedules/s)",
+            asOf, totals[0], totals[1], totals[2], elapsed.toMillis(), String.format("%.0f", report.schedulesPerSecond()));
+        return report;
+    }
+
+    // Generates every missed occurrence of one schedule up to asOf, in a single transaction
+    public int materializeSchedule(Long scheduleId, LocalDate asOf) {
+        try {
+            Integer created = scheduleTransaction.execute(status -> {
+                RecurringExpense schedule = recurringExpenseRepository.findByIdForUpdate(scheduleId).orElse(null);
+                if (schedule == null || !Boolean.TRUE.equals(schedule.getIsActive())) {
+                    return 0;
+                }
+
+                int count = 0;
+                int periods = 0;
+                Set<YearMonth> touchedMonths = new LinkedHashSet<>();
+                while (!schedule.getNextDueDate().isAfter(asOf) && periods++ < maxCatchUp) {
+                    LocalDate dueDate = schedule.getNextDueDate();
+                    if (schedule.getEndDate() != null && dueDate.isAfter(schedule.getEndDate())) {
+                        break;
+                    }
+
+                    if (!expenseRepository.existsByRecurringExpenseAndRecurrenceDueDate(schedule, dueDate)) {
+                        Expense expense = new Expense(schedule.getDescription(), schedule.getAmount(),
+                            schedule.getCategory(), dueDate, schedule.getUser());
+                        expense.setNotes(schedule.getNotes());
+                        expense.setRecurringExpense(schedule);
+                        expense.setRecurrenceDueDate(dueDate);
+                        expenseRepository.save(expense);
+                        outboxService.recordExpenseEvent(OutboxEventType.EXPENSE_CREATED, expense);
+                        touchedMonths.add(YearMonth.from(dueDate));
+                        count++;
+                    }
+                    schedule.setNextDueDate(schedule.calculateNextDueDate());
+                }
+
+                if (schedule.getEndDate() != null && schedule.getNextDueDate().isAfter(schedule.getEndDate())) {
+                    schedule.setIsActive(false);
+                }
+                recurringExpenseRepository.save(schedule);
+
+                for (YearMonth month : touchedMonths) {
+                    budgetService.updateBudgetSpent(schedule.getUser(), schedule.getCategory(), month.atDay(1));
+                }
+                return count;
+            });
+            return created != null ? created : 0;
+        } catch (DataIntegrityViolationException e) {
+            // Another run inserted the same occurrence first and this transaction rolled back, so nothing
+            // re-files the schedule in the due index; reporting it as failed has the index retry it
+            throw new IllegalStateException("Recurring expense " + scheduleId + " was materialized concurrently", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workerPool.shutdown();
+    }
+
+    private void awaitAll(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Recurring materialization interrupted", e);
+            } catch (ExecutionException e) {
+                logger.error("Recurring materialization worker failed: {}", e.getCause().getMessage());
+            }
+        }
+    }
+
+    public record DueSchedule(Long scheduleId, Long userId) {
+    }
+
+    public record MaterializationReport(int schedules, int expensesCreated, int failures, Duration elapsed,
+                                        List<Long> failedScheduleIds) {
+        public double schedulesPerSecond() {
+            double seconds = Math.max(elapsed.toNanos(), 1) / 1_000_000_000.0;
+            return schedules / seconds;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.finsight.ai.service;
+
+import com.finsight.ai.dto.RecurringProjectionDto;
+import com.finsight.ai.dto.RecurringProjectionDto.DailyProjection;
+import com.finsight.ai.entity.ExpenseCategory;
+import com.finsight.ai.entity.RecurrenceFrequency;
+import com.finsight.ai.entity.RecurringExpense;
+import com.finsight.ai.entity.User;
+import com.finsight.ai.repository.RecurringExpenseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Projects future occurrences of a user's active recurring schedules without writing any rows.
+ *
+ * Each schedule is walked lazily with the same stepping as {@link RecurringExpense#calculateNextDueDate()},
+ * and the cursors are merged in date order so days are aggregated as they are produced. Results are
+ * cached per user and window until {@link RecurringExpenseIndexListener} reports a schedule change.
+ */
+@Service
+public class RecurringProjectionService {
+
+    @Autowired
+    private RecurringExpenseRepository recurringExpenseRepository;
+
+    @Value("${app.recurring.projection.max-months:120}")
+    private int maxMonths;
+
+    // Distinct windows kept per user before the user's cache is reset
+    @Value("${app.recurring.projection.cache-windows:8}")
+    private int cacheWindows;
+
+    private final Map<Long, UserProjections> cache = new ConcurrentHashMap<>();
+
+    public RecurringProjectionDto project(User user, LocalDate startDate, int months) {
+        if (months < 1 || months > maxMonths) {
+            throw new RuntimeException("Projection horizon must be between 1 and " + maxMonths + " months");
+        }
+        LocalDate endDate = startDate.plusMonths(months).minusDays(1);
+        Window window = new Window(startDate, endDate);
+
+        UserProjections projections = cache.computeIfAbsent(user.getId(), id -> new UserProjections());
+        RecurringProjectionDto cached = projections.windows.get(window);
+        if (cached != null) {
+            return cached;
+        }
+
+        RecurringProjectionDto projection = compute(
+            recurringExpenseRepository.findByUserAndIsActiveOrderByNextDueDateAsc(user, true), startDate, endDate);
+
+        // Only keep the result if no schedule change evicted this user while we were computing
+        if (cache.get(user.getId()) == projections) {
+            if (projections.windows.size() >= cacheWindows) {
+                projections.windows.clear();
+            }
+            projections.windows.put(window, projection);
+        }
+        return projection;
+    }
+
+    public void evict(Long userId) {
+        cache.remove(userId);
+    }
+
+    private RecurringProjectionDto compute(List<RecurringExpense> schedules, LocalDate startDate, LocalDate endDate) {
+        PriorityQueue<Cursor> cursors = new PriorityQueue<>();
+        for (RecurringExpense schedule : schedules) {
+            LocalDate until = schedule.getEndDate() != null && schedule.getEndDate().isBefore(endDate)
+                ? schedule.getEndDate() : endDate;
+            Cursor cursor = new Cursor(schedule.getCategory(), schedule.getAmount(), schedule.getFrequency(),
+                schedule.getNextDueDate(), until);
+            // Occurrences before the window are skipped, not counted
+            while (cursor.next.isBefore(startDate) && !cursor.next.isAfter(until)) {
+                cursor.advance();
+            }
+            if (!cursor.next.isAfter(until)) {
+                cursors.add(cursor);
+            }
+        }
+
+        List<DailyProjection> days = new ArrayList<>();
+        Map<ExpenseCategory, BigDecimal> categoryTotals = new EnumMap<>(ExpenseCategory.class);
+        BigDecimal total = BigDecimal.ZERO;
+        int occurrences = 0;
+
+        while (!cursors.isEmpty()) {
+            LocalDate day = cursors.peek().next;
+            Map<ExpenseCategory, BigDecimal> dayAmounts = new EnumMap<>(ExpenseCategory.class);
+            BigDecimal dayTotal = BigDecimal.ZERO;
+
+            while (!cursors.isEmpty() && cursors.peek().next.equals(day)) {
+                Cursor cursor = cursors.poll();
+                dayAmounts.merge(cursor.category, cursor.amount, BigDecimal::add);
+                dayTotal = dayTotal.add(cursor.amount);
+                occurrences++;
+
+                cursor.advance();
+                if (!cursor.next.isAfter(cursor.until)) {
+                    cursors.add(cursor);
+                }
+            }
+
+            dayAmounts.forEach((category, amount) -> categoryTotals.merge(category, amount, BigDecimal::add));
+            total = total.add(dayTotal);
+            days.add(new DailyProjection(day, dayTotal, dayAmounts));
+        }
+
+        return new RecurringProjectionDto(startDate, endDate, occurrences, total, categoryTotals, days);
+    }
+
+    private static final class Cursor implements Comparable<Cursor> {
+        private final ExpenseCategory category;
+        private final BigDecimal amount;
+        private final RecurrenceFrequency frequency;
+        private final LocalDate until;
+        private LocalDate next;
+
+        private Cursor(ExpenseCategory category, BigDecimal amount, RecurrenceFrequency frequency,
+                       LocalDate next, LocalDate until) {
+            this.category = category;
+            this.amount = amount;
+            this.frequency = frequency;
+            this.next = next;
+            this.until = until;
+        }
+
+        private void advance() {
+            next = frequency.next(next);
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            return next.compareTo(other.next);
+        }
+    }
+
+    private record Window(LocalDate startDate, LocalDate endDate) {
+    }
+
+    private static final class UserProjections {
+        private final Map<Window, RecurringProjectionDto> windows = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,192 @@
+package com.finsight.ai.service;
+
+import com.finsight.ai.repository.RecurringExpenseRepository;
+import com.finsight.ai.service.RecurringExpenseMaterializer.DueSchedule;
+import com.finsight.ai.service.RecurringExpenseMaterializer.MaterializationReport;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * In-memory calendar of active recurring schedules keyed by next due date.
+ *
+ * Loaded once at startup and kept current by {@link RecurringExpenseIndexListener} after every
+ * committed change, so the database is only touched for schedules that are actually due.
+ * A single timer is armed for the earliest due day and hands those schedules to the
+ * {@link RecurringExpenseMaterializer}; materializing advances their next due date, which
+ * re-files them here through the listener.
+ */
+@Component
+public class RecurringScheduleIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecurringScheduleIndex.class);
+
+    @Autowired
+    private RecurringExpenseRepository recurringExpenseRepository;
+
+    @Autowired
+    private RecurringExpenseMaterializer materializer;
+
+    private final TreeMap<LocalDate, Set<Long>> dueBuckets = new TreeMap<>();
+    private final Map<Long, DueEntry> entries = new HashMap<>();
+    private final ThreadPoolTaskScheduler timer;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private ScheduledFuture<?> armedTask;
+    private Instant armedFor;
+    private boolean ready;
+
+    public RecurringScheduleIndex(MeterRegistry meterRegistry) {
+        this.timer = new ThreadPoolTaskScheduler();
+        this.timer.setPoolSize(1);
+        this.timer.setThreadNamePrefix("recurring-due-");
+        this.timer.initialize();
+        meterRegistry.gauge("recurring.index.size", entries, Map::size);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<Object[]> keys = recurringExpenseRepository.findActiveScheduleKeys();
+        synchronized (this) {
+            for (Object[] key : keys) {
+                // Changes committed while loading already hold newer state
+                if (!entries.containsKey((Long) key[0])) {
+                    file((Long) key[0], (Long) key[1], (LocalDate) key[2]);
+                }
+            }
+            ready = true;
+            arm();
+        }
+        logger.info("Loaded {} active recurring schedules into the due index", keys.size());
+    }
+
+    public synchronized void upsert(Long scheduleId, Long userId, LocalDate nextDueDate, boolean active) {
+        unfile(scheduleId);
+        if (active && nextDueDate != null) {
+            file(scheduleId, userId, nextDueDate);
+            arm();
+        }
+    }
+
+    public synchronized void remove(Long scheduleId) {
+        unfile(scheduleId);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized LocalDate earliestDueDate() {
+        return dueBuckets.isEmpty() ? null : dueBuckets.firstKey();
+    }
+
+    // Takes every schedule due on or before the given day out of the index
+    synchronized List<DueSchedule> pollDue(LocalDate asOf) {
+        List<DueSchedule> due = new ArrayList<>();
+        Iterator<Map.Entry<LocalDate, Set<Long>>> buckets = dueBuckets.headMap(asOf, true).entrySet().iterator();
+        while (buckets.hasNext()) {
+            for (Long scheduleId : buckets.next().getValue()) {
+                DueEntry entry = entries.remove(scheduleId);
+                due.add(new DueSchedule(scheduleId, entry.userId()));
+            }
+            buckets.remove();
+        }
+        return due;
+    }
+
+    private void fire() {
+        LocalDate today = LocalDate.now(zone);
+        List<DueSchedule> due = pollDue(today);
+        try {
+            if (!due.isEmpty()) {
+                MaterializationReport report = materializer.materialize(due, today);
+                retry(due, report.failedScheduleIds(), today);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Recurring materialization from due index failed: {}", e.getMessage());
+            retry(due, due.stream().map(DueSchedule::scheduleId).toList(), today);
+        } finally {
+            synchronized (this) {
+                armedTask = null;
+                armedFor = null;
+                arm();
+            }
+        }
+    }
+
+    // Failed schedules were rolled back and keep their old due date; try them again tomorrow, catch-up covers the gap
+    private synchronized void retry(List<DueSchedule> due, List<Long> failedIds, LocalDate today) {
+        Set<Long> failed = new LinkedHashSet<>(failedIds);
+        for (DueSchedule schedule : due) {
+            if (failed.contains(schedule.scheduleId()) && !entries.containsKey(schedule.scheduleId())) {
+                file(schedule.scheduleId(), schedule.userId(), today.plusDays(1));
+            }
+        }
+    }
+
+    // Points the single timer at the start of the earliest due day, firing right away if that is already past
+    private void arm() {
+        if (!ready || dueBuckets.isEmpty()) {
+            return;
+        }
+        Instant fireAt = dueBuckets.firstKey().atStartOfDay(zone).toInstant();
+        Instant now = Instant.now();
+        if (fireAt.isBefore(now)) {
+            fireAt = now;
+        }
+        if (armedFor != null && !armedFor.isAfter(fireAt)) {
+            return;
+        }
+        if (armedTask != null) {
+            armedTask.cancel(false);
+        }
+        armedFor = fireAt;
+        armedTask = timer.schedule(this::fire, fireAt);
+    }
+
+    private void file(Long scheduleId, Long userId, LocalDate dueDate) {
+        entries.put(scheduleId, new DueEntry(userId, dueDate));
+        dueBuckets.computeIfAbsent(dueDate, d -> new LinkedHashSet<>()).add(scheduleId);
+    }
+
+    private void unfile(Long scheduleId) {
+        DueEntry previous = entries.remove(scheduleId);
+        if (previous == null) {
+            return;
+        }
+        Set<Long> bucket = dueBuckets.get(previous.dueDate());
+        if (bucket != null) {
+            bucket.remove(scheduleId);
+            if (bucket.isEmpty()) {
+                dueBuckets.remove(previous.dueDate());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdown();
+    }
+
+    private record DueEntry(Long userId, LocalDate dueDate) {
+    }
+}
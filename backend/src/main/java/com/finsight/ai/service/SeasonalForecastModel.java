@@ -0,0 +1,72 @@
+package com.finsight.ai.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+/**
+ * Additive Holt-Winters model with a damped trend and a weekly season, fed one day at a time.
+ * The state is a handful of doubles, so snapshots for replaying recent days are cheap.
+ */
+final class SeasonalForecastModel {
+
+    private final double alpha;
+    private final double beta;
+    private final double gamma;
+    private final double phi;
+
+    private double level;
+    private double trend;
+    private final double[] season;
+    private int observations;
+
+    SeasonalForecastModel(double alpha, double beta, double gamma, double phi) {
+        this.alpha = alpha;
+        this.beta = beta;
+        this.gamma = gamma;
+        this.phi = phi;
+        this.season = new double[7];
+    }
+
+    private SeasonalForecastModel(SeasonalForecastModel other) {
+        this(other.alpha, other.beta, other.gamma, other.phi);
+        this.level = other.level;
+        this.trend = other.trend;
+        System.arraycopy(other.season, 0, this.season, 0, season.length);
+        this.observations = other.observations;
+    }
+
+    void update(LocalDate date, double value) {
+        int slot = slot(date.getDayOfWeek());
+        if (observations == 0) {
+            level = value;
+        } else {
+            double previousLevel = level;
+            level = alpha * (value - season[slot]) + (1 - alpha) * (level + phi * trend);
+            trend = beta * (level - previousLevel) + (1 - beta) * phi * trend;
+            season[slot] = gamma * (value - level) + (1 - gamma) * season[slot];
+        }
+        observations++;
+    }
+
+    // Expected spend on a day that lies `steps` days after the last observation
+    double forecast(LocalDate date, int steps) {
+        double damped = phi >= 1 ? steps : phi * (1 - Math.pow(phi, steps)) / (1 - phi);
+        return Math.max(0, level + damped * trend + season[slot(date.getDayOfWeek())]);
+    }
+
+    double getLevel() {
+        return level;
+    }
+
+    double getTrend() {
+        return trend;
+    }
+
+    SeasonalForecastModel copy() {
+        return new SeasonalForecastModel(this);
+    }
+
+    private static int slot(DayOfWeek day) {
+        return day.getValue() - 1;
+    }
+}
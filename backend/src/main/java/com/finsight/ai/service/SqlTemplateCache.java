@@ -0,0 +1,188 @@
+package com.finsight.ai.service;
+
+import com.finsight.ai.entity.ExpenseCategory;
+import com.finsight.ai.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Maps normalized questions to parameterized SQL the AI agent has already written.
+ *
+ * A question is lower-cased and its entities (dates, categories, numbers) are replaced by slots,
+ * so "spent on food on September 8th" and "spent on travel on 2nd of May" share one key. When the
+ * agent's SQL for a question validates and every slot appears in it as a literal, the sandbox turns
+ * it into a template and it is kept here; repeat questions then run the template with their own
+ * slot values and never reach the agent. Templates are user-independent because the sandbox
+ * scopes every run to the caller. The cache is a bounded LRU.
+ */
+@Component
+public class SqlTemplateCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlTemplateCache.class);
+
+    private static final Map<String, ExpenseCategory> CATEGORY_BY_TERM = categoriesByTerm();
+    private static final Pattern ENTITIES = entityPattern();
+
+    @Autowired
+    private AiSqlSandbox sqlSandbox;
+
+    private final Map<String, CachedTemplate> templates;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter learned;
+    private final Counter uncacheable;
+
+    public SqlTemplateCache(MeterRegistry meterRegistry,
+                            @Value("${app.sql-templates.max-entries:500}") int maxEntries) {
+        this.templates = Collections.synchronizedMap(new LinkedHashMap<String, CachedTemplate>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedTemplate> eldest) {
+                return size() > maxEntries;
+            }
+        });
+        this.hits = meterRegistry.counter("ai.sql.templates", "result", "hit");
+        this.misses = meterRegistry.counter("ai.sql.templates", "result", "miss");
+        this.learned = meterRegistry.counter("ai.sql.templates", "result", "learned");
+        this.uncacheable = meterRegistry.counter("ai.sql.templates", "result", "uncacheable");
+    }
+
+    // Categories (longest term first, whole words), the two day-of-month forms, ISO dates and numbers
+    private static Pattern entityPattern() {
+        String categories = CATEGORY_BY_TERM.keySet().stream()
+            .sorted(Comparator.comparingInt(String::length).reversed())
+            .map(Pattern::quote)
+            .collect(Collectors.joining("|"));
+        return Pattern.compile(
+            "(?<iso>\\b\\d{4}-\\d{2}-\\d{2}\\b)"
+                + "|(?<dayOfMonth>" + QuestionVocabulary.DAY_OF_MONTH.pattern() + ")"
+                + "|(?<monthAndDay>" + QuestionVocabulary.MONTH_AND_DAY.pattern() + ")"
+                + "|\\b(?<category>" + categories + ")\\b"
+                + "|(?<number>\\b\\d+(?:\\.\\d+)?\\b)");
+    }
+
+    private static Map<String, ExpenseCategory> categoriesByTerm() {
+        Map<String, ExpenseCategory> byTerm = new HashMap<>();
+        QuestionVocabulary.CATEGORY_TERMS.forEach((category, terms) -> {
+            for (String term : terms) {
+                byTerm.putIfAbsent(term, category);
+            }
+        });
+        return byTerm;
+    }
+
+    public Question normalize(String question, LocalDate today) {
+        String text = question.toLowerCase(Locale.ROOT);
+        StringBuilder key = new StringBuilder();
+        List<Slot> slots = new ArrayList<>();
+        Matcher matcher = ENTITIES.matcher(text);
+        int copied = 0;
+        while (matcher.find()) {
+            Slot slot = toSlot(matcher, today);
+            if (slot == null) {
+                continue;
+            }
+            key.append(text, copied, matcher.start()).append(" {").append(slot.kind()).append("} ");
+            copied = matcher.end();
+            slots.add(slot);
+        }
+        key.append(text.substring(copied));
+        String normalized = key.toString().replaceAll("[^a-z0-9{}]+", " ").trim();
+        return new Question(normalized, slots);
+    }
+
+    private Slot toSlot(Matcher matcher, LocalDate today) {
+        String mention = matcher.group();
+        if (matcher.group("iso") != null) {
+            try {
+                return new Slot("date", mention, LocalDate.parse(mention), mention);
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+        if (matcher.group("dayOfMonth") != null || matcher.group("monthAndDay") != null) {
+            Matcher date = (matcher.group("dayOfMonth") != null ? QuestionVocabulary.DAY_OF_MONTH : QuestionVocabulary.MONTH_AND_DAY)
+                .matcher(mention);
+            date.matches();
+            LocalDate resolved = matcher.group("dayOfMonth") != null
+                ? QuestionVocabulary.resolvePastDate(Integer.parseInt(date.group(1)), date.group(3), today)
+                : QuestionVocabulary.resolvePastDate(Integer.parseInt(date.group(2)), date.group(1), today);
+            return resolved != null ? new Slot("date", mention, resolved, resolved.toString()) : null;
+        }
+        if (matcher.group("category") != null) {
+            ExpenseCategory category = CATEGORY_BY_TERM.get(mention);
+            return new Slot("category", mention, category.name(), category.name());
+        }
+        Object number = mention.contains(".") ? new BigDecimal(mention) : (Object) Long.valueOf(mention);
+        return new Slot("number", mention, number, mention);
+    }
+
+    public CachedTemplate lookup(Question question) {
+        CachedTemplate cached = templates.get(question.key());
+        if (cached != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return cached;
+    }
+
+    // Keeps the agent's SQL for this question shape if the sandbox can parameterize it. Only the SQL:
+    // the agent's explanation quotes the figures it saw, which belong to the user who asked first.
+    public void learn(Question question, String sql, User user) {
+        try {
+            AiSqlSandbox.SqlTemplate template = sqlSandbox.template(sql, question.slotLiterals(), user);
+            if (template == null) {
+                uncacheable.increment();
+                return;
+            }
+            templates.put(question.key(), new CachedTemplate(template));
+            learned.increment();
+        } catch (IllegalArgumentException e) {
+            uncacheable.increment();
+            logger.debug("Not caching SQL for '{}': {}", question.key(), e.getMessage());
+        }
+    }
+
+    public record Slot(String kind, String mention, Object value, String sqlLiteral) {
+    }
+
+    public record Question(String key, List<Slot> slots) {
+        public List<Object> slotValues() {
+            return slots.stream().map(Slot::value).toList();
+        }
+
+        public List<String> slotLiterals() {
+            return slots.stream().map(Slot::sqlLiteral).toList();
+        }
+
+        // Tells the agent which literal each mention stands for, so its SQL can be templated
+        public String describeSlots() {
+            return slots.stream()
+                .map(slot -> String.format("'%s' = %s", slot.mention(), slot.sqlLiteral()))
+                .collect(Collectors.joining(", "));
+        }
+    }
+
+    public record CachedTemplate(AiSqlSandbox.SqlTemplate template) {
+    }
+}
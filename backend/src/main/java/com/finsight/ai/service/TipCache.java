@@ -0,0 +1,183 @@
+package com.finsight.ai.service;
+
+import com.finsight.ai.entity.Budget;
+import com.finsight.ai.entity.ExpenseCategory;
+import com.finsight.ai.entity.User;
+import com.finsight.ai.event.FinancialDataChangedEvent;
+import com.finsight.ai.repository.BudgetRepository;
+import com.finsight.ai.repository.ExpenseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Caches generated AI tips per user until the user's financial state actually changes.
+ *
+ * Entries carry a fingerprint of the current month (total spend, top category, budget statuses).
+ * A hit on a fresh entry costs a map lookup. Expense and budget outbox events only mark the user's
+ * entries stale; the next read recomputes the fingerprint with a few aggregate queries and calls
+ * the generator (and so the AI agent) only when the fingerprint differs or the TTL has passed.
+ * Tips generated without the agent (its fallbacks) are kept only briefly, so a short outage does
+ * not pin canned tips for the whole TTL. The cache is a bounded LRU, so users who stop visiting
+ * age out instead of holding their tips until a restart.
+ */
+@Component
+public class TipCache {
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private BudgetRepository budgetRepository;
+
+    @Autowired
+    private InFlightCoalescer coalescer;
+
+    @Value("${app.ai-tips.cache-ttl-minutes:360}")
+    private long ttlMinutes;
+
+    @Value("${app.ai-tips.fallback-ttl-minutes:5}")
+    private long fallbackTtlMinutes;
+
+    private final Map<Key, Entry> entries;
+    private final Counter hits;
+    private final Counter revalidated;
+    private final Counter misses;
+
+    public TipCache(MeterRegistry meterRegistry,
+                    @Value("${app.ai-tips.max-entries:10000}") int maxEntries) {
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<Key, Entry>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        });
+        this.hits = meterRegistry.counter("ai.tips.cache", "result", "hit");
+        this.revalidated = meterRegistry.counter("ai.tips.cache", "result", "revalidated");
+        this.misses = meterRegistry.counter("ai.tips.cache", "result", "miss");
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(User user, String kind, Supplier<Generated<T>> generator) {
+        Key key = new Key(user.getId(), kind);
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(key);
+
+        if (entry != null && entry.expiresAt > now && entry.profile.equals(profile(user))) {
+            if (!entry.stale) {
+                hits.increment();
+                return (T) entry.value;
+            }
+            String fingerprint = fingerprint(user);
+            if (fingerprint.equals(entry.fingerprint)) {
+                entry.stale = false;
+                revalidated.increment();
+                return (T) entry.value;
+            }
+        }
+
+        // Concurrent misses for the same user and kind share one generation
+        return coalescer.execute(key, () -> {
+            misses.increment();
+            String fingerprint = fingerprint(user);
+            Generated<T> generated = generator.get();
+            long ttl = generated.fromAgent() ? ttlMinutes : fallbackTtlMinutes;
+            entries.put(key, new Entry(generated.value(), profile(user), fingerprint, System.currentTimeMillis() + ttl * 60_000));
+            return generated.value();
+        });
+    }
+
+    // The last generated value for the user and kind, however stale or old; null if there is none
+    @SuppressWarnings("unchecked")
+    public <T> T peek(User user, String kind) {
+        Entry entry = entries.get(new Key(user.getId(), kind));
+        return entry != null && entry.profile.equals(profile(user)) ? (T) entry.value : null;
+    }
+
+    @EventListener
+    public void onFinancialDataChanged(FinancialDataChangedEvent event) {
+        entries.forEach((key, entry) -> {
+            if (Objects.equals(key.userId(), event.getUserId())) {
+                entry.stale = true;
+            }
+        });
+    }
+
+    // Inputs that ride along on the User row and change what the tips say
+    private String profile(User user) {
+        return user.getFirstName() + "|" + user.getCurrency();
+    }
+
+    private String fingerprint(User user) {
+        LocalDate now = LocalDate.now();
+        LocalDate startOfMonth = now.withDayOfMonth(1);
+        LocalDate endOfMonth = now.withDayOfMonth(now.lengthOfMonth());
+
+        BigDecimal total = expenseRepository.getTotalExpensesBetweenDates(user, startOfMonth, endOfMonth);
+        ExpenseCategory topCategory = expenseRepository.getExpensesByCategoryBetweenDates(user, startOfMonth, endOfMonth)
+            .stream()
+            .max(Comparator.comparing(row -> (BigDecimal) row[1]))
+            .map(row -> (ExpenseCategory) row[0])
+            .orElse(null);
+
+        StringBuilder fingerprint = new StringBuilder()
+            .append(startOfMonth).append('|')
+            .append(total != null ? total.setScale(0, RoundingMode.HALF_UP) : 0).append('|')
+            .append(topCategory);
+        List<Budget> budgets = budgetRepository.findByUserAndMonthAndYearOrderByCategory(user, now.getMonthValue(), now.getYear());
+        for (Budget budget : budgets) {
+            fingerprint.append('|').append(budget.getCategory()).append(':').append(status(budget));
+        }
+        return fingerprint.toString();
+    }
+
+    private String status(Budget budget) {
+        if (budget.isOverBudget()) {
+            return "over";
+        }
+        return budget.getBudgetPercentage() >= 80 ? "warning" : "ok";
+    }
+
+    /** A generated value and whether the AI agent produced it, rather than a rule-based fallback. */
+    public record Generated<T>(T value, boolean fromAgent) {
+        public static <T> Generated<T> agent(T value) {
+            return new Generated<>(value, true);
+        }
+
+        public static <T> Generated<T> fallback(T value) {
+            return new Generated<>(value, false);
+        }
+    }
+
+    private record Key(Long userId, String kind) {
+    }
+
+    private static final class Entry {
+        private final Object value;
+        private final String profile;
+        private final String fingerprint;
+        private final long expiresAt;
+        private volatile boolean stale;
+
+        private Entry(Object value, String profile, String fingerprint, long expiresAt) {
+            this.value = value;
+            this.profile = profile;
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
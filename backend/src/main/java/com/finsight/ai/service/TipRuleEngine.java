@@ -0,0 +1,199 @@
+package com.finsight.ai.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finsight.ai.entity.ExpenseCategory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rule-based tip text, loaded from a resource file and compiled once at startup.
+ *
+ * Advice is indexed by (region, category, budget status, urgency). Gaps in a region's rules are
+ * filled from the "default" region while compiling, so a lookup is a single map read. Templates
+ * use {@code {placeholder}} fields and are split into segments up front, so rendering only
+ * appends. Regions are data: a currency mapping plus rules in the file adds one without code.
+ */
+@Component
+public class TipRuleEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(TipRuleEngine.class);
+
+    private static final String DEFAULT_REGION = "default";
+    private static final String UNKNOWN_REGION = "your region";
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{(\\w+)\\}");
+
+    public enum BudgetStatus { NO_BUDGET, OVER, NEAR_LIMIT, BALANCED, UNDER }
+
+    public enum Urgency { HIGH, MEDIUM, LOW }
+
+    private final Map<String, String> regionsByCurrency = new HashMap<>();
+    private final Map<RuleKey, TipTemplate> advice = new HashMap<>();
+    // List name -> region -> templates, "default" always present
+    private final Map<String, Map<String, List<TipTemplate>>> regionalTips = new HashMap<>();
+
+    public TipRuleEngine(ObjectMapper objectMapper,
+                         @Value("${app.tips.rules:tips/tip-rules.json}") String rulesLocation) {
+        RuleFile rules = load(objectMapper, rulesLocation);
+        rules.regions().forEach((currency, region) -> regionsByCurrency.put(currency.toUpperCase(Locale.ROOT), region));
+        compileAdvice(rules.advice());
+        rules.regionalTips().forEach(this::compileRegionalTips);
+        logger.info("Loaded {} tip rules for {} regions from {}", advice.size(), regionsByCurrency.size(), rulesLocation);
+    }
+
+    private static RuleFile load(ObjectMapper objectMapper, String location) {
+        try (InputStream in = TipRuleEngine.class.getClassLoader().getResourceAsStream(location)) {
+            if (in == null) {
+                throw new IllegalStateException("Tip rules not found on classpath: " + location);
+            }
+            return objectMapper.readValue(in, RuleFile.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read tip rules from " + location, e);
+        }
+    }
+
+    // Every region gets a template for every category of every (status, urgency) pair the file uses
+    private void compileAdvice(List<AdviceRule> rules) {
+        Map<RuleKey, TipTemplate> declared = new HashMap<>();
+        Set<String> regions = new HashSet<>(regionsByCurrency.values());
+        regions.add(DEFAULT_REGION);
+        Set<Condition> conditions = new HashSet<>();
+        for (AdviceRule rule : rules) {
+            regions.add(rule.region());
+            for (BudgetStatus status : rule.status()) {
+                conditions.add(new Condition(status, rule.urgency()));
+                rule.tips().forEach((category, text) ->
+                    declared.put(new RuleKey(rule.region(), category, status, rule.urgency()), TipTemplate.compile(text)));
+            }
+        }
+        for (Condition condition : conditions) {
+            BudgetStatus status = condition.status();
+            Urgency urgency = condition.urgency();
+            for (ExpenseCategory category : ExpenseCategory.values()) {
+                TipTemplate fallback = declared.get(new RuleKey(DEFAULT_REGION, category, status, urgency));
+                if (fallback == null) {
+                    throw new IllegalStateException(String.format(
+                        "Tip rules have no default advice for %s (%s, %s)", category, status, urgency));
+                }
+                for (String region : regions) {
+                    RuleKey key = new RuleKey(region, category, status, urgency);
+                    advice.put(key, declared.getOrDefault(key, fallback));
+                }
+            }
+        }
+    }
+
+    private void compileRegionalTips(String list, Map<String, List<String>> byRegion) {
+        if (byRegion.getOrDefault(DEFAULT_REGION, List.of()).isEmpty()) {
+            throw new IllegalStateException("Regional tip list '" + list + "' has no default tips");
+        }
+        Map<String, List<TipTemplate>> compiled = new HashMap<>();
+        byRegion.forEach((region, texts) -> compiled.put(region, texts.stream().map(TipTemplate::compile).toList()));
+        regionalTips.put(list, compiled);
+    }
+
+    public String region(String currency) {
+        return regionsByCurrency.getOrDefault(currency.toUpperCase(Locale.ROOT), UNKNOWN_REGION);
+    }
+
+    public String advice(String region, ExpenseCategory category, BudgetStatus status, Urgency urgency) {
+        return advice(region, category, status, urgency, Map.of());
+    }
+
+    public String advice(String region, ExpenseCategory category, BudgetStatus status, Urgency urgency,
+                         Map<String, String> values) {
+        TipTemplate template = advice.get(new RuleKey(region, category, status, urgency));
+        if (template == null) {
+            template = advice.get(new RuleKey(DEFAULT_REGION, category, status, urgency));
+        }
+        if (template == null) {
+            throw new IllegalArgumentException(String.format("No tip rule for %s (%s, %s)", category, status, urgency));
+        }
+        return template.render(values);
+    }
+
+    public List<String> regionalTips(String list, String region, Map<String, String> values) {
+        return templatesFor(list, region).stream().map(template -> template.render(values)).toList();
+    }
+
+    public String randomRegionalTip(String list, String region, Map<String, String> values) {
+        List<TipTemplate> templates = templatesFor(list, region);
+        return templates.get(ThreadLocalRandom.current().nextInt(templates.size())).render(values);
+    }
+
+    private List<TipTemplate> templatesFor(String list, String region) {
+        Map<String, List<TipTemplate>> byRegion = regionalTips.get(list);
+        if (byRegion == null) {
+            throw new IllegalArgumentException("Unknown regional tip list: " + list);
+        }
+        List<TipTemplate> templates = byRegion.get(region);
+        return templates != null ? templates : byRegion.get(DEFAULT_REGION);
+    }
+
+    private record Condition(BudgetStatus status, Urgency urgency) {
+    }
+
+    private record RuleKey(String region, ExpenseCategory category, BudgetStatus status, Urgency urgency) {
+    }
+
+    record RuleFile(Map<String, String> regions, List<AdviceRule> advice,
+                    Map<String, Map<String, List<String>>> regionalTips) {
+    }
+
+    record AdviceRule(String region, List<BudgetStatus> status, Urgency urgency, Map<ExpenseCategory, String> tips) {
+    }
+
+    /** A template split into literal text and placeholder names, alternating and starting with text. */
+    private static final class TipTemplate {
+        private final String[] literals;
+        private final String[] placeholders;
+
+        private TipTemplate(String[] literals, String[] placeholders) {
+            this.literals = literals;
+            this.placeholders = placeholders;
+        }
+
+        static TipTemplate compile(String text) {
+            List<String> literals = new ArrayList<>();
+            List<String> placeholders = new ArrayList<>();
+            Matcher matcher = PLACEHOLDER.matcher(text);
+            int copied = 0;
+            while (matcher.find()) {
+                literals.add(text.substring(copied, matcher.start()));
+                placeholders.add(matcher.group(1));
+                copied = matcher.end();
+            }
+            literals.add(text.substring(copied));
+            return new TipTemplate(literals.toArray(String[]::new), placeholders.toArray(String[]::new));
+        }
+
+        String render(Map<String, String> values) {
+            if (placeholders.length == 0) {
+                return literals[0];
+            }
+            StringBuilder out = new StringBuilder(literals[0]);
+            for (int i = 0; i < placeholders.length; i++) {
+                String value = values.get(placeholders[i]);
+                if (value == null) {
+                    throw new IllegalArgumentException("No value for tip placeholder {" + placeholders[i] + "}");
+                }
+                out.append(value).append(literals[i + 1]);
+            }
+            return out.toString();
+        }
+    }
+}
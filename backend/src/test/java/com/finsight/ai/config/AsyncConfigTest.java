@@ -0,0 +1,76 @@
+package com.finsight.ai.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsyncConfigTest {
+
+    private AsyncTaskExecutor executor(int maxConcurrent) {
+        AsyncConfig config = new AsyncConfig();
+        ReflectionTestUtils.setField(config, "maxConcurrent", maxConcurrent);
+        return config.aiExecutor(new SimpleMeterRegistry());
+    }
+
+    @Test
+    void boundsTopLevelTasks() throws Exception {
+        AsyncTaskExecutor executor = executor(4);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            tasks.add(CompletableFuture.runAsync(() -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(20);
+                running.decrementAndGet();
+            }, executor));
+        }
+        CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        assertThat(peak.get()).isEqualTo(4);
+    }
+
+    @Test
+    void nestedTasksDoNotDeadlockOnTheLimit() throws Exception {
+        AsyncTaskExecutor executor = executor(2);
+
+        // Every permit is held by a parent that waits on its own fan-out, as a prefetching request does
+        List<CompletableFuture<Integer>> parents = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            parents.add(CompletableFuture.supplyAsync(() -> {
+                List<CompletableFuture<Integer>> children = new ArrayList<>();
+                for (int j = 0; j < 5; j++) {
+                    children.add(CompletableFuture.supplyAsync(() -> {
+                        sleep(10);
+                        return 1;
+                    }, executor));
+                }
+                return children.stream().mapToInt(CompletableFuture::join).sum();
+            }, executor));
+        }
+
+        int total = 0;
+        for (CompletableFuture<Integer> parent : parents) {
+            total += parent.get(10, TimeUnit.SECONDS);
+        }
+        assertThat(total).isEqualTo(30);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
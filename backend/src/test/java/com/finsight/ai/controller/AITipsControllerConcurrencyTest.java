@@ -0,0 +1,133 @@
+package com.finsight.ai.controller;
+
+import com.finsight.ai.config.AsyncConfig;
+import com.finsight.ai.entity.User;
+import com.finsight.ai.service.AITipsService;
+import com.finsight.ai.service.AiRateLimiter;
+import com.finsight.ai.service.DailyTipService;
+import com.finsight.ai.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.embedded.EmbeddedWebServerFactoryCustomizerAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the tips controller on a real Tomcat with two worker threads and shows that many slow AI
+ * requests in flight leave those threads free for other traffic.
+ */
+@SpringBootTest(classes = AITipsControllerConcurrencyTest.TestApp.class,
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {"server.tomcat.threads.max=2", "server.tomcat.threads.min-spare=1"})
+class AITipsControllerConcurrencyTest {
+
+    private static final int SLOW_REQUESTS = 20;
+
+    @Configuration
+    @ImportAutoConfiguration({ServletWebServerFactoryAutoConfiguration.class, EmbeddedWebServerFactoryCustomizerAutoConfiguration.class,
+        DispatcherServletAutoConfiguration.class,
+        WebMvcAutoConfiguration.class, HttpMessageConvertersAutoConfiguration.class, JacksonAutoConfiguration.class})
+    @Import({AITipsController.class, AsyncConfig.class, PingController.class})
+    static class TestApp {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @RestController
+    static class PingController {
+        @GetMapping("/ping")
+        String ping() {
+            return "pong";
+        }
+    }
+
+    @MockBean
+    private AITipsService aiTipsService;
+
+    @MockBean
+    private UserService userService;
+
+    @MockBean
+    private DailyTipService dailyTipService;
+
+    @MockBean
+    private AiRateLimiter rateLimiter;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void slowAiRequestsDoNotHoldTomcatThreads() throws Exception {
+        User user = new User("uid-1", "user@example.com", "Test", "User");
+        ReflectionTestUtils.setField(user, "id", 1L);
+        when(userService.getUserFromToken(anyString())).thenReturn(user);
+
+        // Stands in for a multi-second agent call; the limiter mock admits nothing, so this path serves the tip
+        CountDownLatch started = new CountDownLatch(SLOW_REQUESTS);
+        CountDownLatch release = new CountDownLatch(1);
+        when(aiTipsService.getPersonalizedTipWithoutAgent(any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(30, TimeUnit.SECONDS);
+            return "tip";
+        });
+
+        HttpClient client = HttpClient.newHttpClient();
+        List<CompletableFuture<HttpResponse<String>>> slow = new ArrayList<>();
+        for (int i = 0; i < SLOW_REQUESTS; i++) {
+            slow.add(client.sendAsync(request("/ai-tips/personalized"), HttpResponse.BodyHandlers.ofString()));
+        }
+
+        // Ten times more requests in flight than Tomcat has threads
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        HttpResponse<String> ping = client.send(request("/ping"), HttpResponse.BodyHandlers.ofString());
+        assertThat(ping.statusCode()).isEqualTo(200);
+        assertThat(ping.body()).isEqualTo("pong");
+
+        release.countDown();
+        for (CompletableFuture<HttpResponse<String>> response : slow) {
+            HttpResponse<String> done = response.get(10, TimeUnit.SECONDS);
+            assertThat(done.statusCode()).isEqualTo(200);
+            assertThat(done.body()).contains("tip");
+        }
+    }
+
+    private HttpRequest request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+            .header("Authorization", "Bearer token")
+            .timeout(Duration.ofSeconds(5))
+            .build();
+    }
+}
@@ -0,0 +1,77 @@
+package com.finsight.ai.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AITipsServiceStreamCleanupTest {
+
+    private static final List<String> REPLIES = List.of(
+        "Looking at your recent spending, groceries take the biggest share at INR 4,200. "
+            + "Cutting two takeaway meals a week would save about INR 800 a month. Hope this helps!",
+        "Based on your data: FOOD_DINING is 35% over budget this month. Try cooking at home on weekdays.",
+        "Analyzing your expenses for October, you spent INR 12,500 in total. That is 8% less than September!",
+        "Here's what i found: your SHOPPING budget has INR 1,100 left. Keep purchases small until the 30th.",
+        "You spent **INR 3,000** on *entertainment* this month. That's within your budget. Nice work.",
+        "\"Your biggest expense was rent at INR 15,000. Everything else stays under INR 2,000.\"",
+        "Transport costs rose 20% compared with last month. Consider a monthly pass? It usually pays off "
+            + "after 18 rides. Let me know if you want a breakdown by week.",
+        "Your spending ΓÇÖs trend is flat. Groceries ΓÇô the largest category ΓÇô held steady at INR 4,000.",
+        "Too short.",
+        "Your bills are on track. ".repeat(30) + "Utilities went up slightly in the last week of the month.",
+        "Reviewing your budgets: BILLS_UTILITIES is at 92%, GROCERIES at 60%. Pay the electricity bill early "
+            + "to avoid the late fee.\n\nAlso, FOOD_DINING   spending dropped.   Good progress!");
+
+    private final AITipsService service = new AITipsService();
+
+    @Test
+    void streamedReplyMatchesTheBlockingCleanUp() {
+        Random random = new Random(7);
+        for (String reply : REPLIES) {
+            String expected = blockingCleanUp(reply);
+            assertThat(streamed(words(reply))).as("word tokens of %s", reply).isEqualTo(expected);
+            assertThat(streamed(randomChunks(reply, random))).as("random chunks of %s", reply).isEqualTo(expected);
+            assertThat(streamed(List.of(reply.split("")))).as("characters of %s", reply).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void emitsCompleteSentencesBeforeTheStreamEnds() {
+        List<String> chunks = service.cleanContextualStream(Flux.fromIterable(words(REPLIES.get(0))), "INR")
+            .collectList().block();
+
+        assertThat(chunks).hasSizeGreaterThan(1);
+        assertThat(chunks.get(0)).isEqualTo("groceries take the biggest share at ₹ 4,200.");
+    }
+
+    private String streamed(List<String> tokens) {
+        return String.join("", service.cleanContextualStream(Flux.fromIterable(tokens), "INR").collectList().block());
+    }
+
+    private String blockingCleanUp(String reply) {
+        String cleaned = ReflectionTestUtils.invokeMethod(service, "processContextualAIResponse", reply, "INR");
+        return cleaned != null && cleaned.length() > 15
+            ? cleaned
+            : (String) ReflectionTestUtils.getField(AITipsService.class, "CONTEXTUAL_FALLBACK");
+    }
+
+    private static List<String> words(String text) {
+        return List.of(text.split("(?<= )"));
+    }
+
+    private static List<String> randomChunks(String text, Random random) {
+        List<String> chunks = new ArrayList<>();
+        for (int start = 0; start < text.length(); ) {
+            int end = Math.min(text.length(), start + 1 + random.nextInt(12));
+            chunks.add(text.substring(start, end));
+            start = end;
+        }
+        return chunks;
+    }
+}
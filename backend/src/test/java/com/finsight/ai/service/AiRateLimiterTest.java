@@ -0,0 +1,24 @@
+package com.finsight.ai.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AiRateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void sweepDropsOnlyFullBuckets() {
+        AiRateLimiter limiter = new AiRateLimiter(meterRegistry, 2, 0, 8);
+        limiter.tryAcquire(1L, "tips", 1).close();
+        limiter.tryAcquire(2L, "tips", 0).close();
+
+        limiter.sweepFullBuckets();
+
+        assertThat(meterRegistry.get("ai.rate_limit.tracked_users").gauge().value()).isEqualTo(1.0);
+        assertThat(limiter.tryAcquire(1L, "tips", 1)).isNotNull();
+        assertThat(limiter.tryAcquire(1L, "tips", 1)).isNull();
+    }
+}
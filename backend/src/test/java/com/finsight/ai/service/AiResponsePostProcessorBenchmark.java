@@ -0,0 +1,53 @@
+package com.finsight.ai.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The contextual clean-up path (cleanTipResponse, then formatTipText) over the response corpus,
+ * against the replaceAll chains it replaced. Run with
+ * {@code mvn -P benchmark test-compile exec:exec -Dbenchmark=AiResponsePostProcessorBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AiResponsePostProcessorBenchmark {
+
+    private List<String> responses;
+
+    @Setup
+    public void setUp() {
+        responses = AiResponsePostProcessorTest.corpus();
+    }
+
+    @Benchmark
+    public void precompiled(Blackhole blackhole) {
+        for (String response : responses) {
+            String cleaned = AiResponsePostProcessor.cleanTipResponse(response);
+            blackhole.consume(AiResponsePostProcessor.formatTipText(cleaned, "INR", "₹"));
+        }
+    }
+
+    @Benchmark
+    public void replaceAllChains(Blackhole blackhole) {
+        for (String response : responses) {
+            String cleaned = LegacyResponseCleanup.cleanTipResponse(response);
+            blackhole.consume(LegacyResponseCleanup.formatTipText(cleaned, "INR", "₹"));
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.finsight.ai.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AiResponsePostProcessorTest {
+
+    // The old chains passed the symbol to replaceAll unquoted, so they threw on "$"; those currencies can't be compared
+    private static final Map<String, String> CURRENCIES = Map.of("INR", "₹", "EUR", "€", "GBP", "£");
+
+    // Characters the regex steps react to, spliced into the corpus to reach more of their branches
+    private static final String[] NOISE = {
+        "Γ", "ΓÇ", "ΓÇÖ", "ΓÇô", "ΓÇ»", "ΓëêΓÇ»", "Γǣ", "≡ƒ", "*", "**", "\\u201C", "\\u2019", "\u00A0",
+        "\u2003", "\u200B", "\uFEFF", "\u201C", "\u2019", "\u0007", "\r\n", "\t", "  ", "1. ", "- ", "Tip 2: ",
+        "FOOD_DINING", "INR", "\""
+    };
+
+    static List<String> corpus() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<String> responses = new ArrayList<>();
+        try (InputStream recorded = resource("ai-responses.json");
+             InputStream mock = resource("mock-ai/responses.json")) {
+            responses.addAll(objectMapper.readValue(recorded, new TypeReference<List<String>>() { }));
+            for (JsonNode rule : objectMapper.readTree(mock).get("rules")) {
+                rule.get("replies").forEach(reply -> responses.add(reply.asText()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return responses;
+    }
+
+    private static InputStream resource(String name) {
+        return AiResponsePostProcessorTest.class.getClassLoader().getResourceAsStream(name);
+    }
+
+    private static List<String> corpusWithNoise() {
+        List<String> inputs = new ArrayList<>(corpus());
+        Random random = new Random(3);
+        for (String response : corpus()) {
+            for (int variant = 0; variant < 25; variant++) {
+                StringBuilder noisy = new StringBuilder(response);
+                for (int i = random.nextInt(4); i >= 0; i--) {
+                    noisy.insert(random.nextInt(noisy.length() + 1), NOISE[random.nextInt(NOISE.length)]);
+                }
+                inputs.add(noisy.toString());
+            }
+        }
+        return inputs;
+    }
+
+    @Test
+    void corpusIsLoaded() {
+        assertThat(corpus()).hasSizeGreaterThan(40);
+    }
+
+    @Test
+    void cleanTipResponseMatchesTheOldChain() {
+        assertSameOutput(LegacyResponseCleanup::cleanTipResponse, AiResponsePostProcessor::cleanTipResponse);
+    }
+
+    @Test
+    void cleanSimpleResponseMatchesTheOldChain() {
+        assertSameOutput(LegacyResponseCleanup::cleanSimpleResponse, AiResponsePostProcessor::cleanSimpleResponse);
+    }
+
+    @Test
+    void cleanQuotesAndSpacesMatchesTheOldChain() {
+        assertSameOutput(LegacyResponseCleanup::cleanQuotesAndSpaces, AiResponsePostProcessor::cleanQuotesAndSpaces);
+    }
+
+    @Test
+    void cleanListTipMatchesTheOldChain() {
+        assertSameOutput(LegacyResponseCleanup::cleanListTip, AiResponsePostProcessor::cleanListTip);
+    }
+
+    @Test
+    void formatTipTextMatchesTheOldChain() {
+        CURRENCIES.forEach((currency, symbol) -> assertSameOutput(
+            tip -> LegacyResponseCleanup.formatTipText(tip, currency, symbol),
+            tip -> AiResponsePostProcessor.formatTipText(tip, currency, symbol)));
+    }
+
+    @Test
+    void formatTipTextKeepsDollarSymbolsLiteral() {
+        assertThat(AiResponsePostProcessor.formatTipText("Save CAD 50 on SHOPPING", "CAD", "C$"))
+            .isEqualTo("Save C$ 50 on Shopping");
+    }
+
+    private static void assertSameOutput(UnaryOperator<String> legacy, UnaryOperator<String> current) {
+        for (String input : corpusWithNoise()) {
+            assertThat(current.apply(input)).as("cleaning %s", input).isEqualTo(legacy.apply(input));
+        }
+    }
+}
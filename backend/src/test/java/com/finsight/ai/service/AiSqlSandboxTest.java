@@ -0,0 +1,73 @@
+package com.finsight.ai.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class AiSqlSandboxTest {
+
+    private final AiSqlSandbox sandbox = new AiSqlSandbox(mock(DataSource.class), mock(PlatformTransactionManager.class),
+        new SimpleMeterRegistry(), 200, 5, 50);
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "SELECT SUM(amount) FROM expenses WHERE category = 'GROCERIES'",
+        "select e.description, e.amount from expenses e order by e.amount desc limit 5;",
+        "SELECT category, SUM(amount) AS total FROM expenses GROUP BY category HAVING SUM(amount) > 100",
+        "SELECT e.category, b.amount FROM expenses e JOIN budgets b ON b.category = e.category",
+        "SELECT * FROM expenses e, budgets b WHERE e.category = b.category",
+        "SELECT * FROM (SELECT amount FROM expenses) t",
+        "SELECT * FROM ((SELECT amount FROM expenses)) t",
+        "SELECT e.amount, b.amount FROM (expenses e JOIN budgets b ON b.category = e.category)",
+        "SELECT * FROM expenses e JOIN (budgets b CROSS JOIN expenses x) ON true",
+        "SELECT amount FROM expenses UNION SELECT amount FROM budgets",
+        "SELECT EXTRACT(MONTH FROM expense_date), COUNT(*) FROM expenses GROUP BY 1",
+        "SELECT date_trunc('month', expense_date) AS month, SUM(amount) FROM expenses GROUP BY month",
+        "SELECT amount FROM expenses WHERE amount > (SELECT AVG(amount) FROM expenses)",
+        "SELECT description FROM expenses WHERE description = 'Table for two'"
+    })
+    void acceptsReadOnlyQueriesOverTheUsersTables(String sql) {
+        assertThat(sandbox.validate(sql)).isNotBlank();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        // TABLE and VALUES are queries of their own and used to slip past the table check
+        "SELECT * FROM (TABLE users) t",
+        "SELECT amount FROM expenses UNION TABLE users",
+        "SELECT * FROM expenses e, (TABLE daily_tips) d",
+        "TABLE users",
+        "SELECT * FROM (VALUES (1), (2)) v",
+        "SELECT amount FROM expenses UNION VALUES (1)",
+        // A parenthesised join opened where a table was due skipped the check of its first table
+        "SELECT email, password FROM (users JOIN expenses ON true)",
+        "SELECT * FROM (users CROSS JOIN expenses)",
+        "SELECT * FROM expenses JOIN (users CROSS JOIN budgets) ON true",
+        "SELECT * FROM expenses, (users JOIN budgets ON true)",
+        "SELECT * FROM ((users JOIN expenses ON true))",
+        "SELECT * FROM (expenses JOIN users ON true)",
+        "SELECT * FROM users",
+        "SELECT * FROM expenses JOIN users ON users.id = expenses.user_id",
+        "SELECT * FROM expenses, users",
+        "SELECT * FROM public.expenses",
+        "SELECT * FROM (SELECT * FROM users) u",
+        "SELECT amount FROM expenses UNION SELECT id FROM users",
+        "SELECT * FROM \"users\"",
+        "SELECT pg_sleep(10)",
+        "SELECT amount FROM expenses; DELETE FROM expenses",
+        "SELECT amount FROM expenses -- comment",
+        "WITH u AS (SELECT * FROM users) SELECT * FROM u",
+        "DELETE FROM expenses",
+        "SELECT * FROM expenses FOR UPDATE"
+    })
+    void rejectsStatementsOutsideTheGrammar(String sql) {
+        assertThatThrownBy(() -> sandbox.validate(sql)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
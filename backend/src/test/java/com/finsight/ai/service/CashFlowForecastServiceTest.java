@@ -0,0 +1,113 @@
+package com.finsight.ai.service;
+
+import com.finsight.ai.dto.CashFlowForecastDto;
+import com.finsight.ai.entity.ExpenseCategory;
+import com.finsight.ai.entity.OutboxEventType;
+import com.finsight.ai.entity.User;
+import com.finsight.ai.event.FinancialDataChangedEvent;
+import com.finsight.ai.repository.ExpenseRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CashFlowForecastServiceTest {
+
+    private static final int HISTORY_DAYS = 60;
+
+    private final LocalDate yesterday = LocalDate.now().minusDays(1);
+    private final User user = user(1L);
+    private final Map<LocalDate, BigDecimal> dining = new TreeMap<>();
+
+    @Test
+    void editInThePastRewindsToACheckpointAndMatchesAFullRefit() {
+        for (int day = 0; day < HISTORY_DAYS; day++) {
+            dining.put(yesterday.minusDays(day), BigDecimal.valueOf(50 + (day % 7) * 10));
+        }
+        ExpenseRepository expenseRepository = repository();
+        CashFlowForecastService service = service(expenseRepository, 1000);
+        CashFlowForecastDto before = service.forecast(user, 30);
+
+        LocalDate edited = yesterday.minusDays(10);
+        dining.merge(edited, BigDecimal.valueOf(500), BigDecimal::add);
+        clearInvocations(expenseRepository);
+        service.onFinancialDataChanged(expenseUpdated(edited));
+        CashFlowForecastDto after = service.forecast(user, 30);
+
+        // Checkpoints fall on every 7th fitted day; the newest before the edit is the 49th, yesterday - 11,
+        // so only the days after it are read again
+        LocalDate checkpoint = yesterday.minusDays(11);
+        verify(expenseRepository).getDailyCategoryTotalsBetweenDates(user, checkpoint.plusDays(1), yesterday);
+        verify(expenseRepository, never()).getDailyCategoryTotalsBetweenDates(eq(user), eq(yesterday.minusDays(HISTORY_DAYS - 1L)), any());
+        assertThat(after.getTotalForecast()).isNotEqualTo(before.getTotalForecast());
+        assertThat(after).usingRecursiveComparison().isEqualTo(service(repository(), 1000).forecast(user, 30));
+    }
+
+    @Test
+    void leastRecentlyForecastUserIsEvictedPastMaxUsers() {
+        dining.put(yesterday, BigDecimal.valueOf(40));
+        ExpenseRepository expenseRepository = repository();
+        CashFlowForecastService service = service(expenseRepository, 1);
+        User other = user(2L);
+
+        service.forecast(user, 7);
+        service.forecast(other, 7);
+        clearInvocations(expenseRepository);
+        service.forecast(user, 7);
+
+        // The first user's models were dropped, so their whole history is read again
+        verify(expenseRepository).getDailyCategoryTotalsBetweenDates(user, yesterday.minusDays(HISTORY_DAYS - 1L), yesterday);
+    }
+
+    private ExpenseRepository repository() {
+        ExpenseRepository expenseRepository = mock(ExpenseRepository.class);
+        when(expenseRepository.getDailyCategoryTotalsBetweenDates(any(), any(), any())).thenAnswer(invocation -> {
+            LocalDate from = invocation.getArgument(1);
+            LocalDate to = invocation.getArgument(2);
+            return dining.entrySet().stream()
+                .filter(day -> !day.getKey().isBefore(from) && !day.getKey().isAfter(to))
+                .map(day -> new Object[]{day.getKey(), ExpenseCategory.FOOD_DINING, day.getValue()})
+                .toList();
+        });
+        return expenseRepository;
+    }
+
+    private static CashFlowForecastService service(ExpenseRepository expenseRepository, int maxUsers) {
+        CashFlowForecastService service = new CashFlowForecastService(maxUsers);
+        ReflectionTestUtils.setField(service, "expenseRepository", expenseRepository);
+        ReflectionTestUtils.setField(service, "historyDays", HISTORY_DAYS);
+        ReflectionTestUtils.setField(service, "maxHorizonDays", 365);
+        ReflectionTestUtils.setField(service, "checkpointCount", 8);
+        ReflectionTestUtils.setField(service, "alpha", 0.3);
+        ReflectionTestUtils.setField(service, "beta", 0.05);
+        ReflectionTestUtils.setField(service, "gamma", 0.2);
+        ReflectionTestUtils.setField(service, "phi", 0.98);
+        return service;
+    }
+
+    private FinancialDataChangedEvent expenseUpdated(LocalDate date) {
+        return new FinancialDataChangedEvent(1L, OutboxEventType.EXPENSE_UPDATED, user.getId(), 10L,
+            new FinancialDataChangedEvent.ChangePayload(ExpenseCategory.FOOD_DINING, date, null, null, BigDecimal.valueOf(500)),
+            LocalDateTime.now());
+    }
+
+    private static User user(Long id) {
+        User user = new User("uid-" + id, "user" + id + "@example.com", "Test", "User");
+        ReflectionTestUtils.setField(user, "id", id);
+        return user;
+    }
+}
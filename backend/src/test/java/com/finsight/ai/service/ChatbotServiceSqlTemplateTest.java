@@ -0,0 +1,91 @@
+package com.finsight.ai.service;
+
+import com.finsight.ai.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChatbotServiceSqlTemplateTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AiAgentClient aiAgentClient = mock(AiAgentClient.class);
+    private final AiAgentResilience aiAgentResilience = mock(AiAgentResilience.class);
+    private final AiCallDispatcher dispatcher = mock(AiCallDispatcher.class);
+    private final AiSqlSandbox sqlSandbox = spy(new AiSqlSandbox(mock(DataSource.class), mock(PlatformTransactionManager.class),
+        meterRegistry, 200, 5, 50));
+    private ChatbotService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        SqlTemplateCache sqlTemplates = new SqlTemplateCache(meterRegistry, 100);
+        ReflectionTestUtils.setField(sqlTemplates, "sqlSandbox", sqlSandbox);
+
+        service = new ChatbotService(meterRegistry);
+        ReflectionTestUtils.setField(service, "sqlTemplates", sqlTemplates);
+        ReflectionTestUtils.setField(service, "sqlSandbox", sqlSandbox);
+        ReflectionTestUtils.setField(service, "rateLimiter", new AiRateLimiter(meterRegistry, 10, 0, 8));
+        ReflectionTestUtils.setField(service, "dispatcher", dispatcher);
+        ReflectionTestUtils.setField(service, "aiAgentResilience", aiAgentResilience);
+        ReflectionTestUtils.setField(service, "aiAgentClient", aiAgentClient);
+
+        when(dispatcher.call(any(), any(), any())).thenAnswer(invocation -> ((Supplier<Object>) invocation.getArgument(1)).get());
+        when(aiAgentResilience.call(anyString(), any(), any()))
+            .thenAnswer(invocation -> ((Function<Duration, Object>) invocation.getArgument(1)).apply(Duration.ofSeconds(5)));
+        when(aiAgentClient.complete(eq("chatbot-sql"), anyString(), anyInt(), anyDouble(), any()))
+            .thenReturn("SELECT SUM(amount) AS total FROM expenses WHERE category = 'FOOD_DINING';\nSums your dining spend.");
+        doAnswer(invocation -> {
+            invocation.<Consumer<Map<String, Object>>>getArgument(2).accept(Map.of("total", 1250));
+            return new AiSqlSandbox.QueryResult(1, false);
+        }).when(sqlSandbox).stream(anyString(), any(User.class), any());
+        doAnswer(invocation -> {
+            invocation.<Consumer<Map<String, Object>>>getArgument(3).accept(Map.of("total", 4300));
+            return new AiSqlSandbox.QueryResult(1, false);
+        }).when(sqlSandbox).stream(any(AiSqlSandbox.SqlTemplate.class), any(), any(User.class), any());
+    }
+
+    @Test
+    void sameShapedQuestionIsAnsweredFromTheLearnedTemplate() {
+        User user = user(1L);
+
+        String first = service.handleAIQuery("How much did I spend on food?", user);
+        String second = service.handleAIQuery("How much did I spend on travel?", user);
+
+        assertThat(first).contains("total: 1250");
+        assertThat(second)
+            .contains("AI-generated SQL: SELECT SUM(amount) AS total FROM expenses WHERE category = ?")
+            .contains("for travel")
+            .contains("total: 4300");
+        verify(aiAgentClient, times(1)).complete(eq("chatbot-sql"), anyString(), anyInt(), anyDouble(), any());
+        verify(sqlSandbox).stream(any(AiSqlSandbox.SqlTemplate.class), eq(List.of("TRAVEL")), eq(user), any());
+    }
+
+    private static User user(Long id) {
+        User user = new User("uid-" + id, "user" + id + "@example.com", "Test", "User");
+        ReflectionTestUtils.setField(user, "id", id);
+        return user;
+    }
+}
@@ -0,0 +1,104 @@
+package com.finsight.ai.service;
+
+import com.finsight.ai.entity.DailyTip;
+import com.finsight.ai.entity.User;
+import com.finsight.ai.repository.DailyTipRepository;
+import com.finsight.ai.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DailyTipServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AITipsService aiTipsService = mock(AITipsService.class);
+    private final DailyTipRepository dailyTipRepository = mock(DailyTipRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final AiCallDispatcher dispatcher = mock(AiCallDispatcher.class);
+    private DailyTipService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        service = new DailyTipService(meterRegistry, 2, 0);
+        ReflectionTestUtils.setField(service, "aiTipsService", aiTipsService);
+        ReflectionTestUtils.setField(service, "dailyTipRepository", dailyTipRepository);
+        ReflectionTestUtils.setField(service, "userRepository", userRepository);
+        ReflectionTestUtils.setField(service, "dispatcher", dispatcher);
+        ReflectionTestUtils.setField(service, "aiExecutor", new SimpleAsyncTaskExecutor("test-ai-"));
+        ReflectionTestUtils.setField(service, "pageSize", 200);
+        ReflectionTestUtils.setField(service, "activeDays", 30);
+        when(dispatcher.runAs(any(), any())).thenAnswer(invocation -> ((Supplier<Object>) invocation.getArgument(1)).get());
+        when(dailyTipRepository.findByUserId(anyLong())).thenReturn(Optional.empty());
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void batchStoresOnlyAgentTipsAndCountsFallbacksAsFailures() {
+        User answered = user(1L);
+        User unanswered = user(2L);
+        when(userRepository.findActiveAfter(eq(0L), any(), any())).thenReturn(List.of(answered, unanswered));
+        when(userRepository.findActiveAfter(eq(2L), any(), any())).thenReturn(List.of());
+        when(aiTipsService.generateFreshPersonalizedTip(answered)).thenReturn(TipCache.Generated.agent("Cook at home twice a week."));
+        when(aiTipsService.generateFreshPersonalizedTip(unanswered)).thenReturn(TipCache.Generated.fallback("Track every expense."));
+
+        DailyTipService.BatchReport report = service.run(LocalDate.of(2026, 10, 19));
+
+        assertThat(report.users()).isEqualTo(2);
+        assertThat(report.generated()).isEqualTo(1);
+        assertThat(report.failures()).isEqualTo(1);
+        assertThat(meterRegistry.counter("ai.daily_tips.failures").count()).isEqualTo(1.0);
+        ArgumentCaptor<DailyTip> stored = ArgumentCaptor.forClass(DailyTip.class);
+        verify(dailyTipRepository, times(1)).save(stored.capture());
+        assertThat(stored.getValue().getUserId()).isEqualTo(1L);
+        assertThat(stored.getValue().getTip()).isEqualTo("Cook at home twice a week.");
+    }
+
+    @Test
+    void scheduledBatchRunsOffTheSchedulerThread() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> batchThread = new CompletableFuture<>();
+        when(userRepository.findActiveAfter(anyLong(), any(), any())).thenAnswer(invocation -> {
+            batchThread.complete(Thread.currentThread().getName());
+            release.await(10, TimeUnit.SECONDS);
+            return List.of();
+        });
+
+        // Returns while the batch is still inside its first page query
+        service.precomputeDailyTips();
+
+        assertThat(batchThread.get(5, TimeUnit.SECONDS)).startsWith("daily-tips-");
+        release.countDown();
+    }
+
+    private static User user(Long id) {
+        User user = new User("uid-" + id, "user" + id + "@example.com", "Test", "User");
+        ReflectionTestUtils.setField(user, "id", id);
+        return user;
+    }
+}
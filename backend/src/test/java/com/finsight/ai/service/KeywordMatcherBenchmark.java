@@ -0,0 +1,61 @@
+package com.finsight.ai.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keyword routing of one chatbot message: the automaton scan plus a lookup per keyword, against a
+ * String.contains per keyword as the router used to do. Run with
+ * {@code mvn -P benchmark test-compile exec:exec -Dbenchmark=KeywordMatcherBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeywordMatcherBenchmark {
+
+    private List<String> messages;
+    private List<String> keywords;
+    private KeywordMatcher matcher;
+
+    @Setup
+    public void setUp() {
+        messages = KeywordMatcherTest.MESSAGES.stream().map(message -> message.toLowerCase(Locale.ROOT).trim()).toList();
+        keywords = KeywordMatcherTest.chatbotKeywords();
+        matcher = KeywordMatcherTest.chatbotMatcher();
+    }
+
+    @Benchmark
+    public void automaton(Blackhole blackhole) {
+        for (String message : messages) {
+            KeywordMatcher.Matches matches = matcher.scan(message);
+            for (String keyword : keywords) {
+                blackhole.consume(matches.contains(keyword));
+            }
+        }
+    }
+
+    @Benchmark
+    public void stringContains(Blackhole blackhole) {
+        for (String message : messages) {
+            for (String keyword : keywords) {
+                blackhole.consume(message.contains(keyword));
+            }
+        }
+    }
+}
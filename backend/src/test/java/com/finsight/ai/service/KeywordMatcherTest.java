@@ -0,0 +1,137 @@
+package com.finsight.ai.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeywordMatcherTest {
+
+    static final List<String> MESSAGES = List.of(
+        "How much did I spend on groceries last month?",
+        "how much have i spent this week",
+        "Compare my food spending this month vs last month",
+        "What's my average daily spending?",
+        "how many transactions did i make yesterday",
+        "Am I over budget on entertainment?",
+        "Give me a summary of my spending",
+        "show my categories breakdown",
+        "What did I spend on the 8th of October?",
+        "spending on september 15",
+        "I spent 2000 on shoes, was that too much?",
+        "I bought a new phone today. Do you think it was worth it?",
+        "why did i spend so much on uber",
+        "Analyze my spending pattern and habits",
+        "How does receipt scanning work?",
+        "how do budgets work",
+        "Is it okay that my bills are higher than usual?",
+        "total spent on transport in the previous month",
+        "what is my biggest expense category this month",
+        "I feel worried about my lifestyle spending",
+        "list my purchases from 2024-10-05",
+        "how does my spending compare with others like me",
+        "per day average on food versus per month",
+        "tell me about my highest purchase",
+        "",
+        "hi");
+
+    static List<String> chatbotKeywords() {
+        return Stream.of(
+                Arrays.stream((String[]) ReflectionTestUtils.getField(ChatbotService.class, "INTENT_KEYWORDS")),
+                Arrays.stream(QuestionVocabulary.MONTH_NAMES),
+                QuestionVocabulary.CATEGORY_TERMS.values().stream().flatMap(Arrays::stream))
+            .flatMap(terms -> terms)
+            .distinct()
+            .toList();
+    }
+
+    static KeywordMatcher chatbotMatcher() {
+        return (KeywordMatcher) ReflectionTestUtils.getField(ChatbotService.class, "KEYWORDS");
+    }
+
+    @Test
+    void matchesEqualStringContainsForTheChatbotKeywords() {
+        KeywordMatcher matcher = chatbotMatcher();
+        List<String> keywords = chatbotKeywords();
+
+        List<String> texts = new ArrayList<>();
+        MESSAGES.forEach(message -> texts.add(message.toLowerCase(Locale.ROOT).trim()));
+        // Random splices of keyword fragments, so keywords overlap and break off mid-way
+        Random random = new Random(11);
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int j = random.nextInt(8); j >= 0; j--) {
+                String keyword = keywords.get(random.nextInt(keywords.size()));
+                int from = random.nextInt(keyword.length());
+                text.append(keyword, from, from + 1 + random.nextInt(keyword.length() - from));
+                if (random.nextBoolean()) {
+                    text.append(' ');
+                }
+            }
+            texts.add(text.toString());
+        }
+
+        for (String text : texts) {
+            KeywordMatcher.Matches matches = matcher.scan(text);
+            for (String keyword : keywords) {
+                assertThat(matches.contains(keyword)).as("\"%s\" in \"%s\"", keyword, text).isEqualTo(text.contains(keyword));
+            }
+        }
+    }
+
+    @Test
+    void findsOverlappingAndNestedKeywords() {
+        KeywordMatcher matcher = new KeywordMatcher(List.of("he", "she", "his", "hers", "spend", "spending", "end"));
+
+        KeywordMatcher.Matches matches = matcher.scan("ushers spending");
+
+        assertThat(matches.any("he")).isTrue();
+        assertThat(matches.contains("she")).isTrue();
+        assertThat(matches.contains("hers")).isTrue();
+        assertThat(matches.contains("his")).isFalse();
+        assertThat(matches.contains("spend")).isTrue();
+        assertThat(matches.contains("spending")).isTrue();
+        assertThat(matches.contains("end")).isTrue();
+    }
+
+    @Test
+    void rejectsKeywordsTheMatcherWasNotBuiltWith() {
+        KeywordMatcher.Matches matches = new KeywordMatcher(List.of("budget")).scan("my budget");
+
+        assertThatThrownBy(() -> matches.contains("budgets")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> matches.any("spend", "budget")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void everyKeywordChatbotServiceAsksAboutIsInTheMatcher() throws IOException {
+        String source = Files.readString(Path.of("src/main/java/com/finsight/ai/service/ChatbotService.java"));
+        Matcher calls = Pattern.compile("msg\\.(?:any|contains)\\(([^)]*)\\)").matcher(source);
+        KeywordMatcher.Matches matches = chatbotMatcher().scan("");
+
+        List<String> asked = new ArrayList<>();
+        while (calls.find()) {
+            Matcher literal = Pattern.compile("\"((?:[^\"\\\\]|\\\\.)*)\"").matcher(calls.group(1));
+            while (literal.find()) {
+                asked.add(literal.group(1));
+            }
+        }
+
+        assertThat(asked).hasSizeGreaterThan(100);
+        for (String keyword : asked) {
+            assertThat(matches.contains(keyword)).as(keyword).isFalse();
+        }
+    }
+}
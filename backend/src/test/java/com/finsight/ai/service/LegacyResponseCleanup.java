@@ -0,0 +1,89 @@
+package com.finsight.ai.service;
+
+import com.finsight.ai.entity.ExpenseCategory;
+
+/**
+ * The replaceAll chains AiResponsePostProcessor replaced, copied verbatim from AITipsService, as
+ * the reference for the equivalence test and the benchmark.
+ */
+final class LegacyResponseCleanup {
+
+    private LegacyResponseCleanup() {
+    }
+
+    static String cleanTipResponse(String aiResponse) {
+        return aiResponse
+            .replaceAll("ΓÇ[£¥ô]", "\"")
+            .replaceAll("ΓÇ[æ–—]", "-")
+            .replaceAll("ΓÇ[»¿•]", "")
+            .replaceAll("ΓÇÖ", "'")
+            .replaceAll("ΓÇô", "-")
+            .replaceAll("ΓëêΓÇ»", "~")
+            .replaceAll("ΓÇæ", "-")
+            .replaceAll("ΓÇ»", "")
+            .replaceAll("\\*\\*[^*]*\\*\\*", "")
+            .replaceAll("\\*[^*]*\\*", "")
+            .replaceAll("\\*+", "")
+            .replaceAll("\\\\u201[CD]", "\"")
+            .replaceAll("\\\\u201[89]", "'")
+            .replaceAll("\\\\u201[3-4]", "-")
+            .replaceAll("\\u00A0", " ")
+            .replaceAll("≡ƒ[\\w]*", "")
+            .replaceAll("Γ[\\w]*", "")
+            .replaceAll("\\s+", " ")
+            .trim();
+    }
+
+    static String cleanSimpleResponse(String aiResponse) {
+        return aiResponse
+            .replaceAll("ΓÇÖ", "'")
+            .replaceAll("ΓÇ£", "\"")
+            .replaceAll("ΓÇ¥", "\"")
+            .replaceAll("ΓÇô", "-")
+            .replaceAll("ΓÇæ", "-")
+            .replaceAll("ΓÇ»", "")
+            .replaceAll("ΓÇ¿", "")
+            .replaceAll("[\\p{Cntrl}&&[^\r\n\t]]", "")
+            .replaceAll("\\s+", " ")
+            .trim();
+    }
+
+    static String cleanQuotesAndSpaces(String enhancedContent) {
+        return enhancedContent
+            .replaceAll("ΓÇ£", "\"")
+            .replaceAll("ΓÇô", "\"")
+            .replaceAll("\\u201C", "\"")
+            .replaceAll("\\u201D", "\"")
+            .replaceAll("\\u2018", "\"")
+            .replaceAll("\\u2019", "\"")
+            .replaceAll("Γǣ", "")
+            .replaceAll("[\\u00A0\\u2000-\\u200B\\u2028\\u2029\\uFEFF]", " ")
+            .replaceAll("\\s+", " ")
+            .trim();
+    }
+
+    static String cleanListTip(String tip) {
+        return tip.trim()
+            .replaceAll("ΓÇ£", "\"")
+            .replaceAll("ΓÇô", "\"")
+            .replaceAll("\\u201C", "\"")
+            .replaceAll("\\u201D", "\"")
+            .replaceAll("\\u2018", "\"")
+            .replaceAll("\\u2019", "\"")
+            .replaceAll("Γǣ", "")
+            .replaceAll("[\\u00A0\\u2000-\\u200B\\u2028\\u2029\\uFEFF]", " ")
+            .replaceAll("^\\d+\\.\\s*", "")
+            .replaceAll("^-\\s*", "")
+            .replaceAll("^Tip\\s*\\d*:?\\s*", "")
+            .replaceAll("\\s+", " ")
+            .trim();
+    }
+
+    static String formatTipText(String tip, String currency, String currencySymbol) {
+        String formattedTip = tip;
+        for (ExpenseCategory category : ExpenseCategory.values()) {
+            formattedTip = formattedTip.replaceAll("\\b" + category.name() + "\\b", category.getDisplayName());
+        }
+        return formattedTip.replaceAll("\\b" + currency + "\\b", currencySymbol);
+    }
+}
@@ -0,0 +1,103 @@
+package com.finsight.ai.service;
+
+import com.finsight.ai.entity.OutboxEvent;
+import com.finsight.ai.entity.OutboxEventType;
+import com.finsight.ai.event.FinancialDataChangedEvent;
+import com.finsight.ai.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTest {
+
+    private final OutboxEventRepository outboxEventRepository = mock(OutboxEventRepository.class);
+    private final OutboxService outboxService = mock(OutboxService.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final List<Long> delivered = new ArrayList<>();
+    private final List<Long> failing = new ArrayList<>();
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new OutboxRelay(mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(relay, "outboxEventRepository", outboxEventRepository);
+        ReflectionTestUtils.setField(relay, "outboxService", outboxService);
+        ReflectionTestUtils.setField(relay, "eventPublisher", eventPublisher);
+        ReflectionTestUtils.setField(relay, "batchSize", 200);
+        ReflectionTestUtils.setField(relay, "maxAttempts", 3);
+
+        when(outboxService.toEvent(any())).thenAnswer(invocation -> {
+            OutboxEvent event = invocation.getArgument(0);
+            return new FinancialDataChangedEvent(event.getId(), event.getEventType(), event.getUserId(), event.getAggregateId(),
+                new FinancialDataChangedEvent.ChangePayload(null, null, null, null, null), event.getCreatedAt());
+        });
+        doAnswer(invocation -> {
+            Long outboxId = ((FinancialDataChangedEvent) invocation.getArgument(0)).getOutboxId();
+            if (failing.contains(outboxId)) {
+                throw new IllegalStateException("listener failed for " + outboxId);
+            }
+            delivered.add(outboxId);
+            return null;
+        }).when(eventPublisher).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void failureHoldsBackTheRestOfThatUsersEventsOnly() {
+        OutboxEvent first = event(1L, 1L);
+        OutboxEvent otherUser = event(2L, 2L);
+        OutboxEvent failed = event(3L, 1L);
+        OutboxEvent heldBack = event(4L, 1L);
+        OutboxEvent otherUserLater = event(5L, 2L);
+        failing.add(3L);
+        when(outboxEventRepository.findUnpublishedBatch(any()))
+            .thenReturn(List.of(first, otherUser, failed, heldBack, otherUserLater));
+
+        relay.relay();
+
+        assertThat(delivered).containsExactly(1L, 2L, 5L);
+        assertThat(failed.getPublishedAt()).isNull();
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getLastError()).isEqualTo("listener failed for 3");
+        assertThat(heldBack.getPublishedAt()).isNull();
+        assertThat(heldBack.getAttempts()).isZero();
+        for (OutboxEvent published : Set.of(first, otherUser, otherUserLater)) {
+            assertThat(published.getPublishedAt()).isNotNull();
+        }
+    }
+
+    @Test
+    void eventIsDroppedAfterMaxAttemptsAndTheUsersStreamMovesOn() {
+        OutboxEvent poison = event(1L, 1L);
+        poison.setAttempts(2);
+        OutboxEvent next = event(2L, 1L);
+        failing.add(1L);
+        when(outboxEventRepository.findUnpublishedBatch(any())).thenReturn(List.of(poison, next));
+
+        relay.relay();
+
+        assertThat(poison.getAttempts()).isEqualTo(3);
+        assertThat(poison.getPublishedAt()).isNotNull();
+        assertThat(delivered).containsExactly(2L);
+        assertThat(next.getPublishedAt()).isNotNull();
+    }
+
+    private static OutboxEvent event(Long id, Long userId) {
+        OutboxEvent event = new OutboxEvent(OutboxEventType.EXPENSE_CREATED, userId, 100 + id, "{}");
+        event.setId(id);
+        event.setCreatedAt(LocalDateTime.now());
+        return event;
+    }
+}
@@ -0,0 +1,37 @@
+package com.finsight.ai.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PromptBuilderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PromptBuilder promptBuilder = new PromptBuilder(meterRegistry, 20);
+
+    @Test
+    void promptWithinBudgetIsNotCountedAsCompacted() {
+        // Each section rounds up to a whole token, so their sum exceeds the estimate of the joined text
+        String prompt = promptBuilder.draft("tip")
+            .required("Q: a?\n")
+            .section(1, "x\n")
+            .list(2, "List:\n- a\n- b\n")
+            .required("Be brief.\n")
+            .build();
+
+        assertThat(prompt).isEqualTo("Q: a?\nx\nList:\n- a\n- b\nBe brief.\n");
+        assertThat(meterRegistry.counter("ai.prompt.compacted", "operation", "tip").count()).isZero();
+    }
+
+    @Test
+    void trimmingASectionIsCountedAsCompacted() {
+        String prompt = promptBuilder.draft("tip")
+            .required("Question: how am I doing?\n")
+            .list(1, "Transactions:\n- Groceries 1200\n- Dining 800\n- Fuel 600\n- Rent 15000\n")
+            .build();
+
+        assertThat(prompt).isEqualTo("Question: how am I doing?\nTransactions:\n- Groceries 1200\n- Dining 800\n");
+        assertThat(meterRegistry.counter("ai.prompt.compacted", "operation", "tip").count()).isEqualTo(1.0);
+    }
+}
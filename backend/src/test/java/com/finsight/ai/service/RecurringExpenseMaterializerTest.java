@@ -0,0 +1,119 @@
+package com.finsight.ai.service;
+
+import com.finsight.ai.entity.Expense;
+import com.finsight.ai.entity.ExpenseCategory;
+import com.finsight.ai.entity.RecurrenceFrequency;
+import com.finsight.ai.entity.RecurringExpense;
+import com.finsight.ai.entity.User;
+import com.finsight.ai.repository.ExpenseRepository;
+import com.finsight.ai.repository.RecurringExpenseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RecurringExpenseMaterializerTest {
+
+    private static final LocalDate AS_OF = LocalDate.of(2026, 10, 19);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RecurringExpenseRepository recurringExpenseRepository = mock(RecurringExpenseRepository.class);
+    private final ExpenseRepository expenseRepository = mock(ExpenseRepository.class);
+    private final BudgetService budgetService = mock(BudgetService.class);
+    private final OutboxService outboxService = mock(OutboxService.class);
+    private final User user = user(7L);
+    private RecurringExpenseMaterializer materializer;
+
+    @BeforeEach
+    void setUp() {
+        materializer = new RecurringExpenseMaterializer(mock(PlatformTransactionManager.class), meterRegistry, 2);
+        ReflectionTestUtils.setField(materializer, "recurringExpenseRepository", recurringExpenseRepository);
+        ReflectionTestUtils.setField(materializer, "expenseRepository", expenseRepository);
+        ReflectionTestUtils.setField(materializer, "budgetService", budgetService);
+        ReflectionTestUtils.setField(materializer, "outboxService", outboxService);
+        ReflectionTestUtils.setField(materializer, "pageSize", 100);
+        ReflectionTestUtils.setField(materializer, "maxCatchUp", 366);
+    }
+
+    @AfterEach
+    void tearDown() {
+        materializer.shutdown();
+    }
+
+    @Test
+    void occurrencesThatAlreadyExistAreSkippedOnARerun() {
+        RecurringExpense schedule = weekly(1L, AS_OF.minusWeeks(2));
+        when(recurringExpenseRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(schedule));
+        when(expenseRepository.existsByRecurringExpenseAndRecurrenceDueDate(schedule, AS_OF.minusWeeks(2))).thenReturn(true);
+
+        int created = materializer.materializeSchedule(1L, AS_OF);
+
+        // Two of the three due weeks were missing; the existing one is not inserted again
+        assertThat(created).isEqualTo(2);
+        verify(expenseRepository, times(2)).save(any(Expense.class));
+        verify(expenseRepository, never()).save(argThat(
+            expense -> expense.getRecurrenceDueDate().equals(AS_OF.minusWeeks(2))));
+        assertThat(schedule.getNextDueDate()).isEqualTo(AS_OF.plusWeeks(1));
+
+        // The schedule is now ahead of asOf, so running again creates nothing
+        assertThat(materializer.materializeSchedule(1L, AS_OF)).isZero();
+        verify(expenseRepository, times(2)).save(any(Expense.class));
+    }
+
+    @Test
+    void concurrentInsertOnTheRecurringDueKeyIsReportedAsAFailure() {
+        RecurringExpense raced = weekly(1L, AS_OF);
+        RecurringExpense clean = weekly(2L, AS_OF);
+        when(recurringExpenseRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(raced));
+        when(recurringExpenseRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(clean));
+        when(expenseRepository.save(any(Expense.class))).thenAnswer(invocation -> {
+            Expense expense = invocation.getArgument(0);
+            if (expense.getRecurringExpense() == raced) {
+                throw new DataIntegrityViolationException("duplicate key value violates unique constraint \"uk_expenses_recurring_due\"");
+            }
+            return expense;
+        });
+
+        RecurringExpenseMaterializer.MaterializationReport report = materializer.materialize(List.of(
+            new RecurringExpenseMaterializer.DueSchedule(1L, 7L),
+            new RecurringExpenseMaterializer.DueSchedule(2L, 7L)), AS_OF);
+
+        assertThat(report.schedules()).isEqualTo(2);
+        assertThat(report.expensesCreated()).isEqualTo(1);
+        assertThat(report.failures()).isEqualTo(1);
+        assertThat(report.failedScheduleIds()).containsExactly(1L);
+        assertThat(meterRegistry.counter("recurring.materialization.failures").count()).isEqualTo(1.0);
+        verify(budgetService).updateBudgetSpent(eq(user), eq(ExpenseCategory.BILLS_UTILITIES), eq(AS_OF.withDayOfMonth(1)));
+    }
+
+    private RecurringExpense weekly(Long id, LocalDate nextDueDate) {
+        RecurringExpense schedule = new RecurringExpense("Internet", BigDecimal.valueOf(999), ExpenseCategory.BILLS_UTILITIES,
+            RecurrenceFrequency.WEEKLY, nextDueDate, user);
+        schedule.setId(id);
+        return schedule;
+    }
+
+    private static User user(Long id) {
+        User user = new User("uid-" + id, "user" + id + "@example.com", "Test", "User");
+        ReflectionTestUtils.setField(user, "id", id);
+        return user;
+    }
+}
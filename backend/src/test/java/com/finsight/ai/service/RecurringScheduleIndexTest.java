@@ -0,0 +1,83 @@
+package com.finsight.ai.service;
+
+import com.finsight.ai.repository.RecurringExpenseRepository;
+import com.finsight.ai.service.RecurringExpenseMaterializer.DueSchedule;
+import com.finsight.ai.service.RecurringExpenseMaterializer.MaterializationReport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RecurringScheduleIndexTest {
+
+    private final LocalDate today = LocalDate.now();
+    private final RecurringExpenseMaterializer materializer = mock(RecurringExpenseMaterializer.class);
+    private RecurringScheduleIndex index;
+
+    // Not loaded, so the timer is never armed and fire() only runs when a test calls it
+    @BeforeEach
+    void setUp() {
+        index = new RecurringScheduleIndex(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(index, "recurringExpenseRepository", mock(RecurringExpenseRepository.class));
+        ReflectionTestUtils.setField(index, "materializer", materializer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.shutdown();
+    }
+
+    @Test
+    void pollDueTakesOnlySchedulesDueByTheGivenDay() {
+        index.upsert(1L, 10L, today.minusDays(3), true);
+        index.upsert(2L, 20L, today, true);
+        index.upsert(3L, 30L, today.plusDays(1), true);
+        index.upsert(4L, 40L, today.minusDays(1), false);
+
+        List<DueSchedule> due = index.pollDue(today);
+
+        assertThat(due).containsExactly(new DueSchedule(1L, 10L), new DueSchedule(2L, 20L));
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.earliestDueDate()).isEqualTo(today.plusDays(1));
+    }
+
+    @Test
+    void failedScheduleIsFiledAgainForTomorrow() {
+        index.upsert(1L, 10L, today.minusDays(2), true);
+        index.upsert(2L, 20L, today, true);
+        when(materializer.materialize(anyList(), any())).thenAnswer(invocation -> {
+            // The successful schedule is re-filed by the listener with its advanced due date
+            index.upsert(2L, 20L, today.plusMonths(1), true);
+            return new MaterializationReport(2, 1, 1, Duration.ZERO, List.of(1L));
+        });
+
+        ReflectionTestUtils.invokeMethod(index, "fire");
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.pollDue(today.plusDays(1))).containsExactly(new DueSchedule(1L, 10L));
+        assertThat(index.earliestDueDate()).isEqualTo(today.plusMonths(1));
+    }
+
+    @Test
+    void everyPolledScheduleIsFiledAgainWhenTheMaterializerThrows() {
+        index.upsert(1L, 10L, today, true);
+        index.upsert(2L, 20L, today, true);
+        when(materializer.materialize(anyList(), any())).thenThrow(new IllegalStateException("database down"));
+
+        ReflectionTestUtils.invokeMethod(index, "fire");
+
+        assertThat(index.earliestDueDate()).isEqualTo(today.plusDays(1));
+        assertThat(index.pollDue(today.plusDays(1))).containsExactlyInAnyOrder(new DueSchedule(1L, 10L), new DueSchedule(2L, 20L));
+    }
+}
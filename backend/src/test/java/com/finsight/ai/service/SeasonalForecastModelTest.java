@@ -0,0 +1,66 @@
+package com.finsight.ai.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SeasonalForecastModelTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2026, 1, 5);
+
+    @Test
+    void undampedLinearSeriesIsExtrapolatedExactly() {
+        // alpha = beta = 1 and gamma = 0 reduce the model to "last value plus last step"
+        SeasonalForecastModel model = new SeasonalForecastModel(1, 1, 0, 1);
+        for (int day = 0; day < 10; day++) {
+            model.update(MONDAY.plusDays(day), 10 + 2 * day);
+        }
+
+        assertThat(model.getLevel()).isEqualTo(28.0);
+        assertThat(model.getTrend()).isEqualTo(2.0);
+        assertThat(model.forecast(MONDAY.plusDays(10), 1)).isEqualTo(30.0);
+        assertThat(model.forecast(MONDAY.plusDays(14), 5)).isEqualTo(38.0);
+    }
+
+    @Test
+    void weeklyPatternIsRecoveredWithTheDefaultSmoothing() {
+        SeasonalForecastModel model = new SeasonalForecastModel(0.3, 0.05, 0.2, 0.98);
+        LocalDate day = MONDAY;
+        for (int i = 0; i < 7 * 30; i++, day = day.plusDays(1)) {
+            model.update(day, day.getDayOfWeek() == DayOfWeek.SATURDAY ? 400 : 100);
+        }
+
+        LocalDate lastObserved = day.minusDays(1);
+        for (int step = 1; step <= 7; step++) {
+            LocalDate next = lastObserved.plusDays(step);
+            double expected = next.getDayOfWeek() == DayOfWeek.SATURDAY ? 400 : 100;
+            assertThat(model.forecast(next, step)).isCloseTo(expected, within(3.0));
+        }
+    }
+
+    @Test
+    void copyIsIndependentOfTheOriginal() {
+        SeasonalForecastModel model = new SeasonalForecastModel(0.3, 0.05, 0.2, 0.98);
+        model.update(MONDAY, 100);
+        model.update(MONDAY.plusDays(1), 120);
+        SeasonalForecastModel snapshot = model.copy();
+
+        model.update(MONDAY.plusDays(2), 500);
+
+        assertThat(snapshot.getLevel()).isNotEqualTo(model.getLevel());
+        assertThat(snapshot.forecast(MONDAY.plusDays(2), 1))
+            .isEqualTo(fittedOn(100, 120).forecast(MONDAY.plusDays(2), 1));
+    }
+
+    private static SeasonalForecastModel fittedOn(double... values) {
+        SeasonalForecastModel model = new SeasonalForecastModel(0.3, 0.05, 0.2, 0.98);
+        for (int i = 0; i < values.length; i++) {
+            model.update(MONDAY.plusDays(i), values[i]);
+        }
+        return model;
+    }
+}
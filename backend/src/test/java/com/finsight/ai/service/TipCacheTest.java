@@ -0,0 +1,51 @@
+package com.finsight.ai.service;
+
+import com.finsight.ai.entity.User;
+import com.finsight.ai.repository.BudgetRepository;
+import com.finsight.ai.repository.ExpenseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class TipCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TipCache tipCache;
+
+    @BeforeEach
+    void setUp() {
+        tipCache = new TipCache(meterRegistry, 2);
+        ReflectionTestUtils.setField(tipCache, "expenseRepository", mock(ExpenseRepository.class));
+        ReflectionTestUtils.setField(tipCache, "budgetRepository", mock(BudgetRepository.class));
+        ReflectionTestUtils.setField(tipCache, "coalescer", new InFlightCoalescer(meterRegistry));
+        ReflectionTestUtils.setField(tipCache, "ttlMinutes", 360L);
+        ReflectionTestUtils.setField(tipCache, "fallbackTtlMinutes", 5L);
+    }
+
+    @Test
+    void leastRecentlyReadUserIsEvictedPastMaxEntries() {
+        User first = user(1L);
+        User second = user(2L);
+        User third = user(3L);
+        tipCache.get(first, "tip", () -> TipCache.Generated.agent("first"));
+        tipCache.get(second, "tip", () -> TipCache.Generated.agent("second"));
+
+        // Reading the first user's tip makes the second the eldest entry
+        assertThat(tipCache.<String>get(first, "tip", () -> TipCache.Generated.agent("regenerated"))).isEqualTo("first");
+        tipCache.get(third, "tip", () -> TipCache.Generated.agent("third"));
+
+        assertThat(tipCache.<String>peek(first, "tip")).isEqualTo("first");
+        assertThat(tipCache.<String>peek(second, "tip")).isNull();
+        assertThat(tipCache.<String>peek(third, "tip")).isEqualTo("third");
+    }
+
+    private static User user(Long id) {
+        User user = new User("uid-" + id, "user" + id + "@example.com", "Test", "User");
+        ReflectionTestUtils.setField(user, "id", id);
+        return user;
+    }
+}
@@ -287,12 +287,16 @@ const AITipsPanel = ({ expenses: propExpenses = [], budgets: propBudgets = [] })
     setCashFlowLoading(true);
 
     try {
-      console.log('📊 Generating cash flow forecasting tips...');
-      const cashFlowTipsData = CashFlowForecastingService.getMultipleCashFlowTips(
-        expenses,
-        budgets,
-        userProfile?.currency || 'USD'
-      );
+      console.log('📊 Fetching cash flow forecast...');
+      const currency = userProfile?.currency || 'USD';
+      let cashFlowTipsData;
+      try {
+        const forecast = await ApiService.getCashFlowForecast(90);
+        cashFlowTipsData = CashFlowForecastingService.getCashFlowTipsFromForecast(forecast, currency);
+      } catch (forecastError) {
+        console.warn('⚠️ Server forecast unavailable, analyzing locally:', forecastError.message);
+        cashFlowTipsData = CashFlowForecastingService.getMultipleCashFlowTips(expenses, budgets, currency);
+      }
 
       if (cashFlowTipsData && cashFlowTipsData.length > 0) {
         console.log('✅ Cash flow tips generated:', cashFlowTipsData.length);
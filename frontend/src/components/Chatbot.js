@@ -24,7 +24,7 @@ import {
 import { motion, AnimatePresence } from 'framer-motion';
 import { useAuth } from '../contexts/AuthContext';
 import { useUser } from '../contexts/UserContext';
-import { sendChatMessage } from '../services/api';
+import { sendChatMessage, streamChatMessage } from '../services/api';
 import { auth } from '../firebase';
 
 const Chatbot = () => {
@@ -201,16 +201,36 @@ const Chatbot = () => {
         region: getRegionFromCurrency(userProfile?.currency || 'ZAR')
       };
 
-      console.log('🤖 Sending chat message via API service:', textToSend);
-      const data = await sendChatMessage(textToSend, userContext, auth);
+      console.log('🤖 Streaming chat message via API service:', textToSend);
+      const botTimestamp = new Date().toLocaleTimeString([], { hour: '2-digit', minute: '2-digit' });
+      let streamed = false;
+      let replyText = '';
+
+      try {
+        replyText = await streamChatMessage(textToSend, userContext, (_, soFar) => {
+          if (!streamed) {
+            streamed = true;
+            setLoading(false);
+            setMessages(prev => [...prev, { sender: 'bot', text: soFar, timestamp: botTimestamp }]);
+          } else {
+            setMessages(prev => [...prev.slice(0, -1), { sender: 'bot', text: soFar, timestamp: botTimestamp }]);
+          }
+        });
+      } catch (streamError) {
+        if (streamed) throw streamError;
+        // Streaming unavailable (older server, proxy buffering): fall back to the blocking endpoint
+        console.warn('⚠️ Chat stream failed, falling back:', streamError.message);
+        const data = await sendChatMessage(textToSend, userContext, auth);
+        replyText = data.reply;
+      }
 
       const botMessage = {
         sender: 'bot',
-        text: data.reply || 'I\'m having difficulty processing your request. Please try rephrasing your question.',
-        timestamp: new Date().toLocaleTimeString([], { hour: '2-digit', minute: '2-digit' })
+        text: replyText || 'I\'m having difficulty processing your request. Please try rephrasing your question.',
+        timestamp: botTimestamp
       };
 
-      setMessages(prev => [...prev, botMessage]);
+      setMessages(prev => (streamed ? [...prev.slice(0, -1), botMessage] : [...prev, botMessage]));
       
       // Speak the response if speech is enabled (only on desktop)
       if (!isMobileDevice) {
@@ -271,6 +271,12 @@ export const getMonthlyTrends = async () => {
   return apiRequest('/reports/monthly-trends');
 };
 
+// 📊 Cash flow forecast computed on the server from daily rollups
+export const getCashFlowForecast = async (days = 90) => {
+  const response = await apiRequest(`/cash-flow/forecast?days=${days}`);
+  return response?.data || null;
+};
+
 // 🔍 Receipt scanning
 export const uploadReceipt = async (file) => {
   const formData = new FormData();
@@ -444,6 +450,66 @@ export const sendChatMessage = async (message, userContext = {}, authInstance =
   }
 };
 
+// 🌊 Streaming chatbot reply (Server-Sent Events). Calls onToken for each chunk and resolves with the full text.
+// Aborting the signal closes the connection, which also cancels the upstream AI request on the server.
+export const streamChatMessage = async (message, userContext = {}, onToken = () => {}, signal) => {
+  const authToken = localStorage.getItem('authToken');
+  const response = await fetch(`${API_BASE_URL}/ai-chatbot/stream`, {
+    method: 'POST',
+    headers: {
+      ...(authToken && { 'Authorization': `Bearer ${authToken}` }),
+      'Content-Type': 'application/json',
+      'Accept': 'text/event-stream',
+    },
+    body: JSON.stringify({
+      message,
+      currency: userContext.currency || 'INR',
+      region: userContext.region || 'IN',
+    }),
+    signal,
+  });
+
+  if (!response.ok || !response.body) {
+    throw new Error(`Chat stream failed: ${response.status}`);
+  }
+
+  const reader = response.body.getReader();
+  const decoder = new TextDecoder();
+  let buffer = '';
+  let reply = '';
+
+  while (true) {
+    const { value, done } = await reader.read();
+    if (done) break;
+    buffer += decoder.decode(value, { stream: true });
+
+    let boundary;
+    while ((boundary = buffer.indexOf('\n\n')) !== -1) {
+      const rawEvent = buffer.slice(0, boundary);
+      buffer = buffer.slice(boundary + 2);
+
+      let eventName = 'message';
+      const dataLines = [];
+      rawEvent.split('\n').forEach((line) => {
+        if (line.startsWith('event:')) eventName = line.slice(6).trim();
+        else if (line.startsWith('data:')) dataLines.push(line.slice(5));
+      });
+      const data = dataLines.join('\n');
+
+      if (eventName === 'token') {
+        reply += data;
+        onToken(data, reply);
+      } else if (eventName === 'error') {
+        throw new Error(data || 'Chat stream failed');
+      } else if (eventName === 'done') {
+        return reply;
+      }
+    }
+  }
+
+  return reply;
+};
+
 // Export the apiRequest function for use in components
 export { apiRequest };
 
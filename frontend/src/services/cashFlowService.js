@@ -273,6 +273,42 @@ class CashFlowForecastingService {
     return null;
   }
 
+  // Build tips from the server-side forecast (see GET /cash-flow/forecast) instead of crunching expenses locally
+  static getCashFlowTipsFromForecast(forecast, userCurrency = 'USD') {
+    if (!forecast || !forecast.observedDays) {
+      return [this.getFallbackCashFlowTip(userCurrency)];
+    }
+
+    const regionalContext = this.getRegionalContext(userCurrency);
+    const tips = [];
+    const avgMonthlySpending = Number(forecast.averageMonthlySpending) || 0;
+    const trendText = {
+      increasing: 'increasing',
+      decreasing: 'decreasing',
+    }[forecast.trend] || 'stable';
+
+    tips.push(`${regionalContext.flag} Trend forecast: ${regionalContext.name} spending ${trendText}. Typical month: ${formatCurrency(avgMonthlySpending, userCurrency)}.`);
+
+    const months = forecast.months || [];
+    if (months.length > 0) {
+      tips.push(`${regionalContext.flag} Cash flow prediction: ${months[0].period} estimated spending: ${formatCurrency(Number(months[0].totalAmount), userCurrency)} based on current ${regionalContext.name.toLowerCase()} patterns.`);
+    }
+
+    const categories = Object.entries(forecast.categoryForecasts || {})
+      .map(([category, amount]) => ({ category, amount: Number(amount) }))
+      .sort((a, b) => b.amount - a.amount);
+    const totalForecast = Number(forecast.totalForecast) || 0;
+    if (categories.length > 0 && totalForecast > 0) {
+      const top = categories[0];
+      const percent = (top.amount / totalForecast) * 100;
+      tips.push(`${regionalContext.flag} Category forecast: ${this.getFormattedCategoryName(top.category)} projected at ${formatCurrency(top.amount, userCurrency)} (${percent.toFixed(1)}% of total).`);
+    } else if (months.length > 1) {
+      tips.push(`${regionalContext.flag} ${months[1].period} forecast: ${formatCurrency(Number(months[1].totalAmount), userCurrency)} (${trendText} trend applied).`);
+    }
+
+    return tips.slice(0, 3);
+  }
+
   // Helper method to get a single cash flow tip
   static getSingleCashFlowTip(expenses = [], budgets = [], userCurrency = 'USD') {
     try {
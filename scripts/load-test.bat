@@ -0,0 +1,49 @@
+@echo off
+setlocal enabledelayedexpansion
+
+echo ========================================
+echo FINSIGHT AI - AI LOAD TEST
+echo ========================================
+echo.
+echo Drives /ai-tips/* and /ai-chatbot against the mock AI agent.
+echo Start the backend first with the loadtest profile:
+echo   cd backend ^&^& mvn spring-boot:run -Dspring-boot.run.profiles=loadtest
+echo.
+
+if "%BASE_URL%"=="" set BASE_URL=http://localhost:8080
+if "%USERS%"=="" set USERS=100
+if "%RATE%"=="" set RATE=20
+if "%DURATION%"=="" set DURATION=3m
+
+where k6 >nul 2>&1
+if %errorLevel% neq 0 (
+    echo ❌ k6 is not installed. See https://k6.io/docs/get-started/installation/
+    exit /b 1
+)
+
+curl -sf "%BASE_URL%/actuator/health" >nul 2>&1
+if %errorLevel% neq 0 (
+    echo ❌ Backend is not reachable at %BASE_URL%
+    exit /b 1
+)
+
+if not exist "test-results\load" mkdir test-results\load
+
+echo 📈 Running k6 (rate %RATE%/s for %DURATION%, %USERS% users)...
+k6 run -e BASE_URL=%BASE_URL% -e USERS=%USERS% -e RATE=%RATE% -e DURATION=%DURATION% --summary-export test-results\load\summary.json backend\loadtest\ai-endpoints.js
+set load_result=%errorLevel%
+
+:: Snapshot the AI metrics the run produced
+for %%m in (ai.mock.requests ai.dispatch.wait ai.dispatch.timeouts ai.rate_limit.requests ai.agent.tokens) do (
+    curl -sf "%BASE_URL%/actuator/metrics/%%m" > "test-results\load\%%m.json" 2>nul || echo ⚠️ Metric %%m not available
+)
+
+echo.
+if %load_result% equ 0 (
+    echo ✅ Load test passed its thresholds
+) else (
+    echo ❌ Load test missed its thresholds
+)
+echo 📁 Results saved to: test-results\load\
+echo.
+exit /b %load_result%
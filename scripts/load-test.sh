@@ -0,0 +1,74 @@
+#!/bin/bash
+
+echo "========================================"
+echo "FINSIGHT AI - AI LOAD TEST"
+echo "========================================"
+echo ""
+echo "Drives /ai-tips/* and /ai-chatbot against the mock AI agent."
+echo "Start the backend first with the loadtest profile:"
+echo "  cd backend && mvn spring-boot:run -Dspring-boot.run.profiles=loadtest"
+echo ""
+
+# Colors for output
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+BLUE='\033[0;34m'
+NC='\033[0m' # No Color
+
+# Function to print colored output
+print_success() {
+    echo -e "${GREEN}✅ $1${NC}"
+}
+
+print_error() {
+    echo -e "${RED}❌ $1${NC}"
+}
+
+print_warning() {
+    echo -e "${YELLOW}⚠️  $1${NC}"
+}
+
+print_info() {
+    echo -e "${BLUE}📈 $1${NC}"
+}
+
+BASE_URL=${BASE_URL:-http://localhost:8080}
+
+if ! command -v k6 &> /dev/null; then
+    print_error "k6 is not installed. See https://k6.io/docs/get-started/installation/"
+    exit 1
+fi
+
+if ! curl -sf "$BASE_URL/actuator/health" > /dev/null; then
+    print_error "Backend is not reachable at $BASE_URL"
+    exit 1
+fi
+
+mkdir -p test-results/load
+
+print_info "Running k6 (rate ${RATE:-20}/s for ${DURATION:-3m}, ${USERS:-100} users)..."
+k6 run \
+    -e BASE_URL="$BASE_URL" \
+    -e USERS="${USERS:-100}" \
+    -e RATE="${RATE:-20}" \
+    -e DURATION="${DURATION:-3m}" \
+    --summary-export test-results/load/summary.json \
+    backend/loadtest/ai-endpoints.js
+load_result=$?
+
+# Snapshot the AI metrics the run produced
+for metric in ai.mock.requests ai.dispatch.wait ai.dispatch.timeouts ai.rate_limit.requests ai.agent.tokens; do
+    curl -sf "$BASE_URL/actuator/metrics/$metric" > "test-results/load/$metric.json" \
+        || print_warning "Metric $metric not available"
+done
+
+echo ""
+if [ $load_result -eq 0 ]; then
+    print_success "Load test passed its thresholds"
+else
+    print_error "Load test missed its thresholds"
+fi
+echo "📁 Results saved to: test-results/load/"
+echo ""
+exit $load_result